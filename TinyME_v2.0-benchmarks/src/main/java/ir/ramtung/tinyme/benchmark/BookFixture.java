@@ -0,0 +1,67 @@
+package ir.ramtung.tinyme.benchmark;
+
+import ir.ramtung.tinyme.domain.entity.Broker;
+import ir.ramtung.tinyme.domain.entity.IcebergOrder;
+import ir.ramtung.tinyme.domain.entity.Order;
+import ir.ramtung.tinyme.domain.entity.Security;
+import ir.ramtung.tinyme.domain.entity.Shareholder;
+import ir.ramtung.tinyme.domain.entity.Side;
+
+// a book with one order per price level: asks from BEST_ASK upwards and bids from BEST_BID downwards
+class BookFixture {
+
+	static final String ISIN = "BENCH";
+	static final int BEST_ASK = 10_000;
+	static final int BEST_BID = BEST_ASK - 1;
+	static final int LEVEL_QUANTITY = 100;
+	static final int PEAK_SIZE = 10;
+
+	final Security security;
+	final Broker broker;
+	final Shareholder shareholder;
+	private final OrderMix orderMix;
+	private long nextOrderId = 1;
+
+	BookFixture(OrderMix orderMix) {
+		this.orderMix = orderMix;
+		security = Security.builder().isin(ISIN).build();
+		broker = Broker.builder().brokerId(1).credit(Long.MAX_VALUE / 4).build();
+		shareholder = Shareholder.builder().shareholderId(1).build();
+		shareholder.incPosition(security, Integer.MAX_VALUE / 4);
+	}
+
+	BookFixture withDepth(int depth) {
+		for (int level = 0; level < depth; level++) {
+			security.getOrderBook().enqueue(restingOrder(Side.SELL, BEST_ASK + level));
+			security.getOrderBook().enqueue(restingOrder(Side.BUY, BEST_BID - level));
+		}
+		return this;
+	}
+
+	// both sides cover the same prices, so an auction can trade at any of them
+	BookFixture withCrossedDepth(int depth) {
+		for (int level = 0; level < depth; level++) {
+			security.getOrderBook().enqueue(restingOrder(Side.SELL, BEST_ASK + level));
+			security.getOrderBook().enqueue(restingOrder(Side.BUY, BEST_ASK + depth - 1 - level));
+		}
+		return this;
+	}
+
+	Order restingOrder(Side side, int price) {
+		long orderId = nextOrderId();
+		boolean iceberg = orderMix == OrderMix.ICEBERG || (orderMix == OrderMix.MIXED && orderId % 2 == 0);
+		if (iceberg) {
+			return new IcebergOrder(orderId, security, side, LEVEL_QUANTITY, price, broker, shareholder, PEAK_SIZE);
+		} else {
+			return new Order(orderId, security, side, LEVEL_QUANTITY, price, broker, shareholder);
+		}
+	}
+
+	Order limitOrder(Side side, int quantity, int price) {
+		return new Order(nextOrderId(), security, side, quantity, price, broker, shareholder);
+	}
+
+	long nextOrderId() {
+		return nextOrderId++;
+	}
+}
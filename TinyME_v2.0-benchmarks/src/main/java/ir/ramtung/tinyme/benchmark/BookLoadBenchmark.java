@@ -0,0 +1,107 @@
+package ir.ramtung.tinyme.benchmark;
+
+import ir.ramtung.tinyme.repository.BrokerRepository;
+import ir.ramtung.tinyme.repository.DataLoader;
+import ir.ramtung.tinyme.repository.JournalSyncPolicy;
+import ir.ramtung.tinyme.repository.RequestJournal;
+import ir.ramtung.tinyme.repository.SecurityRepository;
+import ir.ramtung.tinyme.repository.ShareholderRepository;
+import ir.ramtung.tinyme.repository.SnapshotStore;
+import java.io.StringReader;
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// loads an order book file of a million resting orders, spread evenly over the securities and 500 prices a side
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = { "-Xmx4g" })
+public class BookLoadBenchmark {
+
+	private static final int ORDER_COUNT = 1_000_000;
+	private static final int PRICES_PER_SIDE = 500;
+
+	@Param({ "1", "100" })
+	int securityCount;
+
+	private String orderBookCsv;
+	private DataLoader dataLoader;
+	private ExecutorService executor;
+
+	@Setup(Level.Trial)
+	public void createFile() {
+		StringBuilder csv = new StringBuilder(ORDER_COUNT * 64);
+		csv.append(
+			"orderId,isin,side,quantity,minimumExecutionQuantity,price,brokerId,shareholderId,entryTime,peakSize,displayedQuantity\n"
+		);
+		LocalDateTime entryTime = LocalDateTime.of(2024, 2, 23, 10, 0);
+		for (int orderId = 1; orderId <= ORDER_COUNT; orderId++) {
+			boolean buy = orderId % 2 == 0;
+			int price = buy ? 10_000 - (orderId * 7) % PRICES_PER_SIDE : 10_001 + (orderId * 13) % PRICES_PER_SIDE;
+			boolean iceberg = orderId % 5 == 0;
+			csv
+				.append(orderId)
+				.append(",SEC")
+				.append(orderId % securityCount)
+				.append(buy ? ",BUY," : ",SELL,")
+				.append("100,0,")
+				.append(price)
+				.append(",1,1,")
+				.append(entryTime.plusNanos(orderId * 1000L))
+				.append(iceberg ? ",10,10\n" : ",0,0\n");
+		}
+		orderBookCsv = csv.toString();
+		executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+	}
+
+	@Setup(Level.Invocation)
+	public void loadReferenceData() throws Exception {
+		BrokerRepository brokerRepository = new BrokerRepository();
+		ShareholderRepository shareholderRepository = new ShareholderRepository();
+		SecurityRepository securityRepository = new SecurityRepository();
+		dataLoader =
+			new DataLoader(
+				brokerRepository,
+				shareholderRepository,
+				securityRepository,
+				new RequestJournal("", 1024, JournalSyncPolicy.NONE, 1),
+				new SnapshotStore("", brokerRepository, shareholderRepository, securityRepository)
+			);
+
+		StringBuilder securities = new StringBuilder("isin,tickSize,lotSize\n");
+		for (int i = 0; i < securityCount; i++) {
+			securities.append("SEC").append(i).append(",1,1\n");
+		}
+		dataLoader.loadBrokers(new StringReader("brokerId,name,credit\n1,broker1,100000000\n"));
+		dataLoader.loadShareholders(new StringReader("shareholderId,name\n1,shareholder1\n"));
+		dataLoader.loadSecurities(new StringReader(securities.toString()));
+	}
+
+	@Benchmark
+	public DataLoader loadOrderBook() throws Exception {
+		dataLoader.loadOrderBook(new StringReader(orderBookCsv), executor);
+		return dataLoader;
+	}
+
+	@TearDown(Level.Trial)
+	public void shutdown() {
+		executor.shutdown();
+	}
+}
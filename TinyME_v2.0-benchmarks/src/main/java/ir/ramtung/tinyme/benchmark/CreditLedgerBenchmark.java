@@ -0,0 +1,84 @@
+package ir.ramtung.tinyme.benchmark;
+
+import ir.ramtung.tinyme.domain.entity.Broker;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// one broker trading on several matching shards at once: queued buy orders reserve and release credit
+// while trades of incoming buy orders reserve and commit it, and sellers get the traded value back
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreditLedgerBenchmark {
+
+	private static final long ORDER_VALUE = 100L * BookFixture.BEST_ASK;
+
+	@State(Scope.Benchmark)
+	public static class SharedBroker {
+
+		Broker broker;
+
+		@Setup
+		public void setUp() {
+			broker = Broker.builder().brokerId(1).credit(Long.MAX_VALUE / 2).build();
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class OwnBroker {
+
+		Broker broker;
+
+		@Setup
+		public void setUp() {
+			broker = Broker.builder().brokerId(1).credit(Long.MAX_VALUE / 2).build();
+		}
+	}
+
+	private static boolean queueAndDelete(Broker broker) {
+		boolean reserved = broker.reserveCredit(ORDER_VALUE);
+		broker.releaseCredit(ORDER_VALUE);
+		return reserved;
+	}
+
+	private static boolean tradeWithItself(Broker broker) {
+		boolean reserved = broker.reserveCredit(ORDER_VALUE);
+		broker.commitCredit(ORDER_VALUE);
+		broker.increaseCreditBy(ORDER_VALUE);
+		return reserved;
+	}
+
+	@Benchmark
+	@Group("shared")
+	@GroupThreads(4)
+	public boolean sharedQueueAndDelete(SharedBroker state) {
+		return queueAndDelete(state.broker);
+	}
+
+	@Benchmark
+	@Group("shared")
+	@GroupThreads(4)
+	public boolean sharedTrade(SharedBroker state) {
+		return tradeWithItself(state.broker);
+	}
+
+	@Benchmark
+	@Threads(8)
+	public boolean uncontendedQueueAndDelete(OwnBroker state) {
+		return queueAndDelete(state.broker);
+	}
+}
@@ -0,0 +1,82 @@
+package ir.ramtung.tinyme.benchmark;
+
+import ir.ramtung.tinyme.messaging.EventBatchSender;
+import ir.ramtung.tinyme.messaging.MessagingConfig;
+import ir.ramtung.tinyme.messaging.event.Event;
+import ir.ramtung.tinyme.messaging.event.TradeEvent;
+import jakarta.jms.JMSException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.activemq.artemis.jms.client.ActiveMQConnectionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jms.connection.CachingConnectionFactory;
+import org.springframework.jms.core.JmsTemplate;
+
+// messages per second for the events of one auction opening: one convertAndSend per event, as the
+// publisher did before, against one transacted batch. needs an Artemis broker, by default on
+// tcp://127.0.0.1:61616, which can be changed with -Dtinyme.brokerUrl=...
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventSendBenchmark {
+
+	private static final int RESPONSE_EVENTS = 64;
+	private static final String QUEUE = "tinyme-benchmark";
+
+	@Param({ "PER_EVENT", "BATCHED" })
+	String sending;
+
+	private CachingConnectionFactory connectionFactory;
+	private JmsTemplate jmsTemplate;
+	private EventBatchSender batchSender;
+	private List<Event> events;
+
+	@Setup
+	public void setUp() {
+		String brokerUrl = System.getProperty("tinyme.brokerUrl", "tcp://127.0.0.1:61616");
+		// the same cached connection factory spring boot puts under its JmsTemplate
+		connectionFactory = new CachingConnectionFactory(new ActiveMQConnectionFactory(brokerUrl));
+		jmsTemplate = new JmsTemplate(connectionFactory);
+		jmsTemplate.setMessageConverter(new MessagingConfig().jacksonJmsMessageConverter());
+		batchSender = new EventBatchSender(jmsTemplate, QUEUE);
+
+		events = new ArrayList<>();
+		for (int i = 0; i < RESPONSE_EVENTS; i++) {
+			events.add(new TradeEvent("ABC", 15_450, 10, i, RESPONSE_EVENTS + i));
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		batchSender.close();
+		connectionFactory.destroy();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(RESPONSE_EVENTS)
+	public void sendResponse() throws JMSException {
+		if (sending.equals("BATCHED")) {
+			batchSender.send(events);
+		} else {
+			for (Event event : events) {
+				jmsTemplate.convertAndSend(QUEUE, event);
+			}
+		}
+	}
+}
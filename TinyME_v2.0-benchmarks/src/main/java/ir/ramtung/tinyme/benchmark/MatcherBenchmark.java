@@ -0,0 +1,124 @@
+package ir.ramtung.tinyme.benchmark;
+
+import ir.ramtung.tinyme.domain.entity.MatchResult;
+import ir.ramtung.tinyme.domain.entity.OrderBook;
+import ir.ramtung.tinyme.domain.entity.Side;
+import ir.ramtung.tinyme.domain.service.Matcher;
+import ir.ramtung.tinyme.domain.service.controls.AuctionMatchingControl;
+import ir.ramtung.tinyme.domain.service.controls.ContinuousMatchingControl;
+import ir.ramtung.tinyme.domain.service.controls.CreditControl;
+import ir.ramtung.tinyme.domain.service.controls.PositionControl;
+import ir.ramtung.tinyme.domain.service.controls.QuantityControl;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MatcherBenchmark {
+
+	private static final int LAST_TRADE_PRICE = BookFixture.BEST_ASK;
+
+	static Matcher newMatcher() {
+		PositionControl positionControl = new PositionControl();
+		CreditControl creditControl = new CreditControl();
+		QuantityControl quantityControl = new QuantityControl();
+		return new Matcher(
+			new ContinuousMatchingControl(positionControl, creditControl, quantityControl),
+			new AuctionMatchingControl(positionControl, creditControl, quantityControl)
+		);
+	}
+
+	@State(Scope.Thread)
+	public static class ContinuousBook {
+
+		@Param({ "10", "1000", "10000" })
+		int depth;
+
+		@Param({ "LIMIT", "ICEBERG", "MIXED" })
+		OrderMix orderMix;
+
+		@Param({ "1", "10" })
+		int sweptLevels;
+
+		Matcher matcher;
+		BookFixture fixture;
+		OrderBook orderBook;
+
+		@Setup
+		public void setUp() {
+			matcher = newMatcher();
+			fixture = new BookFixture(orderMix).withDepth(depth);
+			orderBook = fixture.security.getOrderBook();
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class CrossedBook {
+
+		@Param({ "10", "1000", "10000" })
+		int depth;
+
+		@Param({ "LIMIT", "ICEBERG", "MIXED" })
+		OrderMix orderMix;
+
+		Matcher matcher;
+		OrderBook orderBook;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			matcher = newMatcher();
+			orderBook = new BookFixture(orderMix).withCrossedDepth(depth).security.getOrderBook();
+		}
+	}
+
+	// auction matching empties the crossed part of the book, so every invocation gets a fresh one
+	@State(Scope.Thread)
+	public static class FreshCrossedBook extends CrossedBook {
+
+		@Setup(Level.Invocation)
+		public void rebuild() {
+			setUp();
+		}
+	}
+
+	@Benchmark
+	public MatchResult continuousExecuting(ContinuousBook book) {
+		BookFixture fixture = book.fixture;
+		int sweptLevels = Math.min(book.sweptLevels, book.depth);
+		int price = BookFixture.BEST_ASK + sweptLevels - 1;
+		MatchResult result = book.matcher.continuousExecuting(
+			fixture.limitOrder(Side.BUY, sweptLevels * BookFixture.LEVEL_QUANTITY, price),
+			book.orderBook
+		);
+
+		// put back the liquidity the buy took, so the book keeps its depth
+		for (int level = 0; level < sweptLevels; level++) {
+			book.orderBook.enqueue(fixture.restingOrder(Side.SELL, BookFixture.BEST_ASK + level));
+		}
+		return result;
+	}
+
+	@Benchmark
+	public int calcOpeningAuctionPrice(CrossedBook book) {
+		return book.matcher.calcOpeningAuctionPrice(book.orderBook, LAST_TRADE_PRICE);
+	}
+
+	@Benchmark
+	public MatchResult auctionExecuting(FreshCrossedBook book) {
+		return book.matcher.auctionExecuting(book.orderBook, LAST_TRADE_PRICE);
+	}
+}
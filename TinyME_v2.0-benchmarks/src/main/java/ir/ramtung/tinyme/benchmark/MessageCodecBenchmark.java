@@ -0,0 +1,110 @@
+package ir.ramtung.tinyme.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ir.ramtung.tinyme.domain.entity.Side;
+import ir.ramtung.tinyme.messaging.BinaryCodec;
+import ir.ramtung.tinyme.messaging.TradeDTO;
+import ir.ramtung.tinyme.messaging.event.OrderExecutedEvent;
+import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// the json side is configured as MappingJackson2MessageConverter configures its own ObjectMapper
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageCodecBenchmark {
+
+	public enum MessageKind {
+		ENTER_ORDER,
+		EXECUTED_WITH_10_TRADES,
+	}
+
+	@Param({ "ENTER_ORDER", "EXECUTED_WITH_10_TRADES" })
+	MessageKind messageKind;
+
+	private ObjectMapper objectMapper;
+	private Object message;
+	private String json;
+	private ByteBuffer buffer;
+	private byte[] binary;
+
+	@Setup
+	public void setUp() throws JsonProcessingException {
+		objectMapper = new ObjectMapper();
+		objectMapper.configure(MapperFeature.DEFAULT_VIEW_INCLUSION, false);
+		objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+		message = switch (messageKind) {
+			case ENTER_ORDER -> EnterOrderRq.createNewOrderRq(
+				1,
+				BookFixture.ISIN,
+				2,
+				LocalDateTime.now(),
+				Side.BUY,
+				300,
+				BookFixture.BEST_ASK,
+				3,
+				4,
+				0,
+				0
+			);
+			case EXECUTED_WITH_10_TRADES -> {
+				List<TradeDTO> trades = new ArrayList<>();
+				for (int i = 0; i < 10; i++) {
+					trades.add(new TradeDTO(BookFixture.ISIN, BookFixture.BEST_ASK + i, 100, 2, 100 + i));
+				}
+				yield new OrderExecutedEvent(1, 2, trades);
+			}
+		};
+
+		json = objectMapper.writeValueAsString(message);
+		buffer = BinaryCodec.newBuffer(4096);
+		BinaryCodec.encode(message, buffer);
+		binary = new byte[buffer.position()];
+		buffer.flip();
+		buffer.get(binary);
+	}
+
+	@Benchmark
+	public String encodeJson() throws JsonProcessingException {
+		return objectMapper.writeValueAsString(message);
+	}
+
+	@Benchmark
+	public Object decodeJson() throws JsonProcessingException {
+		return objectMapper.readValue(json, message.getClass());
+	}
+
+	@Benchmark
+	public int encodeBinary() {
+		buffer.clear();
+		BinaryCodec.encode(message, buffer);
+		return buffer.position();
+	}
+
+	@Benchmark
+	public Object decodeBinary() {
+		return BinaryCodec.decode(BinaryCodec.wrap(binary));
+	}
+}
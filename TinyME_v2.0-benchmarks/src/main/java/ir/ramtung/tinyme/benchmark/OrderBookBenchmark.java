@@ -0,0 +1,63 @@
+package ir.ramtung.tinyme.benchmark;
+
+import ir.ramtung.tinyme.domain.entity.Order;
+import ir.ramtung.tinyme.domain.entity.OrderBook;
+import ir.ramtung.tinyme.domain.entity.Side;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderBookBenchmark {
+
+	private static final int INCOMING_ORDERS = 1024;
+
+	@Param({ "10", "1000", "10000" })
+	int depth;
+
+	@Param({ "LIMIT", "ICEBERG", "MIXED" })
+	OrderMix orderMix;
+
+	private OrderBook orderBook;
+	private Order[] incomingOrders;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		BookFixture fixture = new BookFixture(orderMix).withDepth(depth);
+		orderBook = fixture.security.getOrderBook();
+
+		// passive orders spread over the book, so they join existing levels as well as new ones
+		Random random = new Random(1404);
+		incomingOrders = new Order[INCOMING_ORDERS];
+		for (int i = 0; i < INCOMING_ORDERS; i++) {
+			int offset = random.nextInt(depth + 10);
+			incomingOrders[i] = (i % 2 == 0)
+				? fixture.restingOrder(Side.SELL, BookFixture.BEST_ASK + offset)
+				: fixture.restingOrder(Side.BUY, BookFixture.BEST_BID - offset);
+		}
+	}
+
+	@Benchmark
+	public OrderBook enqueueAndRemove() {
+		Order order = incomingOrders[next++ % INCOMING_ORDERS];
+		orderBook.enqueue(order);
+		orderBook.removeOrder(order);
+		return orderBook;
+	}
+}
@@ -0,0 +1,117 @@
+package ir.ramtung.tinyme.benchmark;
+
+import ir.ramtung.tinyme.domain.entity.Side;
+import ir.ramtung.tinyme.domain.service.ApplicationServices;
+import ir.ramtung.tinyme.domain.service.OrderHandler;
+import ir.ramtung.tinyme.messaging.EventPublisher;
+import ir.ramtung.tinyme.messaging.event.Event;
+import ir.ramtung.tinyme.messaging.request.DeleteOrderRq;
+import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
+import ir.ramtung.tinyme.repository.BrokerRepository;
+import ir.ramtung.tinyme.repository.SecurityRepository;
+import ir.ramtung.tinyme.repository.ShareholderRepository;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderHandlerBenchmark {
+
+	public enum RequestMix {
+		// a passive order is entered and then deleted
+		PASSIVE,
+		// a buy takes the best ask and a new sell puts it back
+		AGGRESSIVE,
+	}
+
+	@Param({ "10", "1000", "10000" })
+	int depth;
+
+	@Param({ "PASSIVE", "AGGRESSIVE" })
+	RequestMix requestMix;
+
+	private final LocalDateTime entryTime = LocalDateTime.now();
+	private BookFixture fixture;
+	private OrderHandler orderHandler;
+	private CountingEventPublisher eventPublisher;
+	private long requestId;
+
+	@Setup
+	public void setUp() {
+		fixture = new BookFixture(OrderMix.LIMIT).withDepth(depth);
+
+		SecurityRepository securityRepository = new SecurityRepository();
+		BrokerRepository brokerRepository = new BrokerRepository();
+		ShareholderRepository shareholderRepository = new ShareholderRepository();
+		securityRepository.addSecurity(fixture.security);
+		brokerRepository.addBroker(fixture.broker);
+		shareholderRepository.addShareholder(fixture.shareholder);
+
+		eventPublisher = new CountingEventPublisher();
+		orderHandler = new OrderHandler(
+			new ApplicationServices(securityRepository, brokerRepository, shareholderRepository),
+			eventPublisher
+		);
+	}
+
+	@Benchmark
+	public int handleRq() {
+		if (requestMix == RequestMix.PASSIVE) {
+			long orderId = fixture.nextOrderId();
+			orderHandler.handleRq(newOrderRq(orderId, Side.BUY, BookFixture.BEST_BID));
+			orderHandler.handleRq(new DeleteOrderRq(++requestId, BookFixture.ISIN, Side.BUY, orderId));
+		} else {
+			orderHandler.handleRq(newOrderRq(fixture.nextOrderId(), Side.BUY, BookFixture.BEST_ASK));
+			orderHandler.handleRq(newOrderRq(fixture.nextOrderId(), Side.SELL, BookFixture.BEST_ASK));
+		}
+		return eventPublisher.count;
+	}
+
+	private EnterOrderRq newOrderRq(long orderId, Side side, int price) {
+		return EnterOrderRq.createNewOrderRq(
+			++requestId,
+			BookFixture.ISIN,
+			orderId,
+			entryTime,
+			side,
+			BookFixture.LEVEL_QUANTITY,
+			price,
+			fixture.broker.getBrokerId(),
+			fixture.shareholder.getShareholderId(),
+			0,
+			0
+		);
+	}
+
+	// keeps the last event reachable so publishing cannot be optimized away
+	static class CountingEventPublisher extends EventPublisher {
+
+		int count;
+		Event lastEvent;
+
+		CountingEventPublisher() {
+			super(null, null, 0, 1);
+		}
+
+		@Override
+		public void publish(Event event) {
+			lastEvent = event;
+			count++;
+		}
+	}
+}
@@ -0,0 +1,7 @@
+package ir.ramtung.tinyme.benchmark;
+
+public enum OrderMix {
+	LIMIT,
+	ICEBERG,
+	MIXED,
+}
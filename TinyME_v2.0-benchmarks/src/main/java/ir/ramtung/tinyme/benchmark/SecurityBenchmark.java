@@ -0,0 +1,67 @@
+package ir.ramtung.tinyme.benchmark;
+
+import ir.ramtung.tinyme.domain.entity.OrderBook;
+import ir.ramtung.tinyme.domain.entity.Security;
+import ir.ramtung.tinyme.domain.entity.SecurityResponse;
+import ir.ramtung.tinyme.domain.entity.Side;
+import ir.ramtung.tinyme.domain.entity.StopLimitOrder;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecurityBenchmark {
+
+	@Param({ "1", "10", "100" })
+	int cascadeLength;
+
+	private BookFixture fixture;
+
+	// each stop-limit buy trades one level up, which raises the last trade price to the next stop price
+	@Setup(Level.Invocation)
+	public void setUp() {
+		fixture = new BookFixture(OrderMix.LIMIT);
+		Security security = fixture.security;
+		OrderBook orderBook = security.getOrderBook();
+		for (int level = 0; level <= cascadeLength; level++) {
+			orderBook.enqueue(fixture.restingOrder(Side.SELL, BookFixture.BEST_ASK + level));
+		}
+		for (int level = 0; level < cascadeLength; level++) {
+			int stopPrice = BookFixture.BEST_ASK + level;
+			security.addNewOrder(
+				new StopLimitOrder(
+					fixture.nextOrderId(),
+					security,
+					Side.BUY,
+					BookFixture.LEVEL_QUANTITY,
+					stopPrice + 1,
+					fixture.broker,
+					fixture.shareholder,
+					stopPrice
+				)
+			);
+		}
+	}
+
+	@Benchmark
+	public SecurityResponse addNewOrderWithStopLimitCascade() {
+		return fixture.security.addNewOrder(
+			fixture.limitOrder(Side.BUY, BookFixture.LEVEL_QUANTITY, BookFixture.BEST_ASK)
+		);
+	}
+}
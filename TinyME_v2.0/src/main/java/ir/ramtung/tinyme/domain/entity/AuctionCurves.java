@@ -0,0 +1,187 @@
+package ir.ramtung.tinyme.domain.entity;
+
+public class AuctionCurves {
+
+	private Node root;
+	private int seed = 0x2545F491;
+
+	void add(Side side, int price, int quantity) {
+		if (quantity == 0) {
+			return;
+		}
+
+		root = (side == Side.BUY) ? add(root, price, quantity, 0) : add(root, price, 0, quantity);
+	}
+
+	void clear() {
+		root = null;
+	}
+
+	public long getTotalDemand() {
+		return (root == null) ? 0 : root.buySum;
+	}
+
+	public long getTotalSupply() {
+		return (root == null) ? 0 : root.sellSum;
+	}
+
+	// demand only falls and supply only rises with the price, so the tradable quantity peaks where
+	// the two curves cross: just below it supply is the limit, from it on demand is
+	public long getMaxTradableQuantity() {
+		long totalDemand = getTotalDemand();
+		long supplyBelowCross = 0;
+		long demandAboveCross = totalDemand;
+
+		long sellsBefore = 0;
+		long buysBefore = 0;
+		Node node = root;
+		while (node != null) {
+			long supply = sellsBefore + sellSum(node.left) + node.sell;
+			long buysBelow = buysBefore + buySum(node.left);
+			if (supply < totalDemand - buysBelow) {
+				supplyBelowCross = supply;
+				demandAboveCross = totalDemand - buysBelow - node.buy;
+				sellsBefore = supply;
+				buysBefore = buysBelow + node.buy;
+				node = node.right;
+			} else {
+				node = node.left;
+			}
+		}
+
+		return Math.max(supplyBelowCross, demandAboveCross);
+	}
+
+	public int getLowestPriceWithSupply(long quantity) {
+		int price = Integer.MAX_VALUE;
+		long sellsBefore = 0;
+		Node node = root;
+		while (node != null) {
+			long supply = sellsBefore + sellSum(node.left) + node.sell;
+			if (supply >= quantity) {
+				price = node.price;
+				node = node.left;
+			} else {
+				sellsBefore = supply;
+				node = node.right;
+			}
+		}
+		return price;
+	}
+
+	public int getHighestPriceWithDemand(long quantity) {
+		int price = Integer.MIN_VALUE;
+		long buysAfter = 0;
+		Node node = root;
+		while (node != null) {
+			long demand = buysAfter + buySum(node.right) + node.buy;
+			if (demand >= quantity) {
+				price = node.price;
+				node = node.right;
+			} else {
+				buysAfter = demand;
+				node = node.left;
+			}
+		}
+		return price;
+	}
+
+	private Node add(Node node, int price, int buy, int sell) {
+		if (node == null) {
+			node = new Node(price, nextPriority());
+			node.buy = buy;
+			node.sell = sell;
+		} else if (price < node.price) {
+			node.left = add(node.left, price, buy, sell);
+			if (node.left != null && node.left.priority > node.priority) {
+				node = rotateRight(node);
+			}
+		} else if (price > node.price) {
+			node.right = add(node.right, price, buy, sell);
+			if (node.right != null && node.right.priority > node.priority) {
+				node = rotateLeft(node);
+			}
+		} else {
+			node.buy += buy;
+			node.sell += sell;
+			if (node.buy == 0 && node.sell == 0) {
+				return merge(node.left, node.right);
+			}
+		}
+
+		update(node);
+		return node;
+	}
+
+	private Node merge(Node left, Node right) {
+		if (left == null) {
+			return right;
+		}
+		if (right == null) {
+			return left;
+		}
+
+		if (left.priority > right.priority) {
+			left.right = merge(left.right, right);
+			update(left);
+			return left;
+		} else {
+			right.left = merge(left, right.left);
+			update(right);
+			return right;
+		}
+	}
+
+	private Node rotateRight(Node node) {
+		Node left = node.left;
+		node.left = left.right;
+		left.right = node;
+		update(node);
+		return left;
+	}
+
+	private Node rotateLeft(Node node) {
+		Node right = node.right;
+		node.right = right.left;
+		right.left = node;
+		update(node);
+		return right;
+	}
+
+	private void update(Node node) {
+		node.buySum = buySum(node.left) + node.buy + buySum(node.right);
+		node.sellSum = sellSum(node.left) + node.sell + sellSum(node.right);
+	}
+
+	private static long buySum(Node node) {
+		return (node == null) ? 0 : node.buySum;
+	}
+
+	private static long sellSum(Node node) {
+		return (node == null) ? 0 : node.sellSum;
+	}
+
+	private int nextPriority() {
+		seed ^= seed << 13;
+		seed ^= seed >>> 17;
+		seed ^= seed << 5;
+		return seed;
+	}
+
+	private static final class Node {
+
+		final int price;
+		final int priority;
+		long buy;
+		long sell;
+		long buySum;
+		long sellSum;
+		Node left;
+		Node right;
+
+		Node(int price, int priority) {
+			this.price = price;
+			this.priority = priority;
+		}
+	}
+}
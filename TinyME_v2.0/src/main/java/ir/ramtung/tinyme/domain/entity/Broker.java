@@ -8,7 +8,6 @@ import lombok.ToString;
 
 @ToString
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
-@Builder
 public class Broker {
 
 	@Getter
@@ -19,28 +18,65 @@ public class Broker {
 	private String name;
 
 	@Getter
-	private long credit;
+	private final CreditLedger creditLedger;
+
+	@Getter
+	@ToString.Exclude
+	private final DirtyMark<Broker> dirtyMark = new DirtyMark<>(this);
+
+	@Builder
+	public Broker(long brokerId, String name, long credit) {
+		this.brokerId = brokerId;
+		this.name = name;
+		this.creditLedger = new CreditLedger(credit, dirtyMark::mark);
+	}
+
+	public long getCredit() {
+		return creditLedger.getAvailable();
+	}
+
+	public long getReservedCredit() {
+		return creditLedger.getReserved();
+	}
 
 	public void increaseCreditBy(long amount) {
 		if (amount < 0) {
 			throw new IllegalArgumentException("negative amount passed to increaseCreditBy method in Broker class");
 		}
 
-		credit += amount;
+		creditLedger.deposit(amount);
 	}
 
 	public void decreaseCreditBy(long amount) {
 		if (amount < 0) {
 			throw new IllegalArgumentException("negative amount passed to decreaseCreditBy method in Broker class");
 		}
-		if (!hasEnoughCredit(amount)) {
+		if (!creditLedger.tryWithdraw(amount)) {
 			throw new NotEnoughCreditException();
 		}
+	}
+
+	public boolean reserveCredit(long amount) {
+		return creditLedger.tryReserve(amount);
+	}
+
+	public boolean adjustReservedCredit(long from, long to) {
+		return creditLedger.tryAdjustReservation(from, to);
+	}
+
+	public void commitCredit(long amount) {
+		creditLedger.commit(amount);
+	}
+
+	public void releaseCredit(long amount) {
+		creditLedger.release(amount);
+	}
 
-		credit -= amount;
+	public void restoreCredit(long availableCredit, long reservedCredit) {
+		creditLedger.restore(availableCredit, reservedCredit);
 	}
 
 	public boolean hasEnoughCredit(long amount) {
-		return credit >= amount;
+		return creditLedger.getAvailable() >= amount;
 	}
 }
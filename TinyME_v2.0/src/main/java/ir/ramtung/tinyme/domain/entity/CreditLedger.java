@@ -0,0 +1,117 @@
+package ir.ramtung.tinyme.domain.entity;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// a broker trades in securities of every matching shard, so its credit is only ever changed by
+// compare-and-set: credit is reserved for queued buy orders and incoming buy trades, and a reservation
+// is later either committed as spent or released back to the available credit
+public class CreditLedger {
+
+	private final AtomicLong available;
+	private final AtomicLong reserved = new AtomicLong();
+	private final Runnable onChange;
+
+	public CreditLedger(long credit) {
+		this(credit, () -> {});
+	}
+
+	public CreditLedger(long credit, Runnable onChange) {
+		available = new AtomicLong(credit);
+		this.onChange = onChange;
+	}
+
+	public long getAvailable() {
+		return available.get();
+	}
+
+	public long getReserved() {
+		return reserved.get();
+	}
+
+	public boolean tryReserve(long amount) {
+		if (!tryTake(amount)) {
+			return false;
+		}
+		reserved.addAndGet(amount);
+		onChange.run();
+		return true;
+	}
+
+	// changes a reservation in place: only a rise is taken from the available credit, and it fails with nothing
+	// changed when that credit is not there, while a fall gives the difference back and never fails
+	public boolean tryAdjustReservation(long from, long to) {
+		checkAmount(from);
+		checkAmount(to);
+		if (to > from) {
+			return tryReserve(to - from);
+		}
+		if (to < from) {
+			release(from - to);
+		}
+		return true;
+	}
+
+	public void commit(long amount) {
+		checkAmount(amount);
+		reserved.addAndGet(-amount);
+		onChange.run();
+	}
+
+	public void release(long amount) {
+		checkAmount(amount);
+		reserved.addAndGet(-amount);
+		available.addAndGet(amount);
+		onChange.run();
+	}
+
+	public void deposit(long amount) {
+		checkAmount(amount);
+		available.addAndGet(amount);
+		onChange.run();
+	}
+
+	public boolean tryWithdraw(long amount) {
+		if (!tryTake(amount)) {
+			return false;
+		}
+		onChange.run();
+		return true;
+	}
+
+	// undoes changes recorded by a match journal, so it never fails
+	void revert(long availableChange, long reservedChange) {
+		available.addAndGet(-availableChange);
+		reserved.addAndGet(-reservedChange);
+		onChange.run();
+	}
+
+	// puts back the credit of saved data
+	void restore(long availableCredit, long reservedCredit) {
+		available.set(availableCredit);
+		reserved.set(reservedCredit);
+		onChange.run();
+	}
+
+	private boolean tryTake(long amount) {
+		checkAmount(amount);
+		long current;
+		do {
+			current = available.get();
+			if (current < amount) {
+				return false;
+			}
+		} while (!available.compareAndSet(current, current - amount));
+		return true;
+	}
+
+	private static void checkAmount(long amount) {
+		if (amount < 0) {
+			throw new IllegalArgumentException("negative amount passed to CreditLedger");
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "CreditLedger(available=" + available.get() + ", reserved=" + reserved.get() + ")";
+	}
+}
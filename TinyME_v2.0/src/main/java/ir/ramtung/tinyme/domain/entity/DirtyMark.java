@@ -0,0 +1,42 @@
+package ir.ramtung.tinyme.domain.entity;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+// tells whether an entity changed since it was last checkpointed; only the change that dirties a clean entity
+// hands it to the tracker, so a checkpoint visits the changed entities without looking at the others
+public class DirtyMark<T> {
+
+	private final T entity;
+	private final AtomicBoolean dirty = new AtomicBoolean();
+	private volatile Consumer<? super T> tracker;
+
+	DirtyMark(T entity) {
+		this.entity = entity;
+	}
+
+	public void trackWith(Consumer<? super T> tracker) {
+		this.tracker = tracker;
+	}
+
+	public void mark() {
+		Consumer<? super T> currentTracker = tracker;
+		if (currentTracker != null && !dirty.get() && dirty.compareAndSet(false, true)) {
+			currentTracker.accept(entity);
+		}
+	}
+
+	public boolean isDirty() {
+		return dirty.get();
+	}
+
+	// called once the entity is written, at a point where it does not change
+	public void clear() {
+		dirty.set(false);
+	}
+
+	@Override
+	public String toString() {
+		return "DirtyMark(" + dirty.get() + ")";
+	}
+}
@@ -3,8 +3,6 @@ package ir.ramtung.tinyme.domain.entity;
 import ir.ramtung.tinyme.domain.exception.InvalidIcebergPeakSizeException;
 import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.ToString;
@@ -47,36 +45,6 @@ public class IcebergOrder extends Order {
 		this.displayedQuantity = displayedQuantity;
 	}
 
-	public IcebergOrder(
-		long orderId,
-		Security security,
-		Side side,
-		int quantity,
-		int minimumExecutionQuantity,
-		int price,
-		Broker broker,
-		Shareholder shareholder,
-		List<LocalDateTime> entryTimes,
-		int peakSize,
-		int displayedQuantity,
-		OrderStatus status
-	) {
-		super(
-			orderId,
-			security,
-			side,
-			quantity,
-			minimumExecutionQuantity,
-			price,
-			broker,
-			shareholder,
-			entryTimes,
-			status
-		);
-		this.peakSize = peakSize;
-		this.displayedQuantity = displayedQuantity;
-	}
-
 	public IcebergOrder(
 		long orderId,
 		Security security,
@@ -106,7 +74,7 @@ public class IcebergOrder extends Order {
 		);
 	}
 
-	public IcebergOrder(
+	IcebergOrder(
 		long orderId,
 		Security security,
 		Side side,
@@ -115,9 +83,10 @@ public class IcebergOrder extends Order {
 		int price,
 		Broker broker,
 		Shareholder shareholder,
-		List<LocalDateTime> entryTimes,
+		LocalDateTime entryTime,
 		int peakSize,
-		OrderStatus status
+		OrderStatus status,
+		long priority
 	) {
 		this(
 			orderId,
@@ -128,12 +97,12 @@ public class IcebergOrder extends Order {
 			price,
 			broker,
 			shareholder,
-			entryTimes.getFirst(),
+			entryTime,
 			peakSize,
 			Math.min(peakSize, quantity),
 			status
 		);
-		this.entryTimes.addAll(entryTimes);
+		this.priority = priority;
 	}
 
 	public IcebergOrder(
@@ -224,9 +193,10 @@ public class IcebergOrder extends Order {
 			price,
 			broker,
 			shareholder,
-			new ArrayList<>(entryTimes),
+			entryTime,
 			peakSize,
-			OrderStatus.SNAPSHOT
+			OrderStatus.SNAPSHOT,
+			priority
 		);
 	}
 
@@ -241,9 +211,10 @@ public class IcebergOrder extends Order {
 			price,
 			broker,
 			shareholder,
-			entryTimes,
+			entryTime,
 			peakSize,
-			this.status
+			this.status,
+			priority
 		);
 	}
 
@@ -271,21 +242,21 @@ public class IcebergOrder extends Order {
 		if (quantity == 0) {
 			this.status = OrderStatus.DONE;
 		}
+		onQuantityChanged();
 	}
 
 	public boolean isDisplayZero() {
 		return displayedQuantity == 0;
 	}
 
-	@Override
-	public void rollback(Order firstVersion) {
-		IcebergOrder fVersion = (IcebergOrder) firstVersion;
-		this.displayedQuantity = fVersion.displayedQuantity;
-		super.rollback(firstVersion);
+	void restore(int quantity, int displayedQuantity, OrderStatus status, long priority) {
+		this.displayedQuantity = displayedQuantity;
+		restore(quantity, status, priority);
 	}
 
 	public void replenish() {
 		displayedQuantity = Math.min(quantity, peakSize);
+		onQuantityChanged();
 	}
 
 	@Override
@@ -295,6 +266,7 @@ public class IcebergOrder extends Order {
 
 		if (peakSize < tempIcebergOrder.peakSize || displayedQuantity > quantity) {
 			displayedQuantity = Math.min(quantity, tempIcebergOrder.peakSize);
+			onQuantityChanged();
 		}
 
 		peakSize = tempIcebergOrder.peakSize;
@@ -316,8 +288,4 @@ public class IcebergOrder extends Order {
 		IcebergOrder tempIcebergOrder = (IcebergOrder) tempOrder;
 		return this.peakSize < tempIcebergOrder.peakSize;
 	}
-
-	public void addUpdateTime(LocalDateTime updateTime) {
-		entryTimes.add(updateTime);
-	}
 }
@@ -0,0 +1,13 @@
+package ir.ramtung.tinyme.domain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class MatchForecast {
+
+	private final int quantity;
+	private final long value;
+	private final boolean tradingWithOwnBroker;
+}
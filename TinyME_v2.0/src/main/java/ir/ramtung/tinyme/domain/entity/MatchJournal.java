@@ -0,0 +1,91 @@
+package ir.ramtung.tinyme.domain.entity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MatchJournal {
+
+	private final List<Entry> entries = new ArrayList<>();
+
+	public void recordTrade(Trade trade) {
+		Order buy = trade.getBuy();
+		Order sell = trade.getSell();
+		Security security = trade.getSecurity();
+
+		entries.add(orderEntry(buy));
+		entries.add(orderEntry(sell));
+		entries.add(buyerCreditEntry(trade));
+		entries.add(new CreditEntry(sell.getBroker(), trade.getTradedValue(), 0));
+		entries.add(new PositionEntry(buy.getShareholder(), security, positionOf(buy.getShareholder(), security)));
+		entries.add(new PositionEntry(sell.getShareholder(), security, positionOf(sell.getShareholder(), security)));
+	}
+
+	public void rollback(OrderBook orderBook) {
+		for (Entry entry : entries.reversed()) {
+			entry.undo(orderBook);
+		}
+		entries.clear();
+	}
+
+	private static OrderEntry orderEntry(Order order) {
+		int displayedQuantity = (order instanceof IcebergOrder icebergOrder) ? icebergOrder.getDisplayedQuantity() : 0;
+		return new OrderEntry(order, order.quantity, displayedQuantity, order.status, order.priority);
+	}
+
+	// brokers are shared between matching shards, so credit is rolled back by the changes the trade made
+	private static CreditEntry buyerCreditEntry(Trade trade) {
+		Broker broker = trade.getBuy().getBroker();
+		if (!trade.isBuyQueued()) {
+			return new CreditEntry(broker, -trade.getTradedValue(), 0);
+		}
+
+		long returnedCredit = trade.getReturnedBuyCredit();
+		return new CreditEntry(broker, returnedCredit, -(trade.getTradedValue() + returnedCredit));
+	}
+
+	private static int positionOf(Shareholder shareholder, Security security) {
+		return shareholder.getPositions().getOrDefault(security, 0);
+	}
+
+	private interface Entry {
+		void undo(OrderBook orderBook);
+	}
+
+	private record OrderEntry(Order order, int quantity, int displayedQuantity, OrderStatus status, long priority)
+		implements Entry {
+		@Override
+		public void undo(OrderBook orderBook) {
+			if (status == OrderStatus.QUEUED && order.isDeleted()) {
+				orderBook.enqueue(order);
+			}
+			boolean requeued = order.priority != priority;
+			if (order instanceof IcebergOrder icebergOrder) {
+				icebergOrder.restore(quantity, displayedQuantity, status, priority);
+			} else {
+				order.restore(quantity, status, priority);
+			}
+			if (requeued && order.isQueued()) {
+				orderBook.reposition(order);
+			}
+		}
+	}
+
+	private record CreditEntry(Broker broker, long availableChange, long reservedChange) implements Entry {
+		@Override
+		public void undo(OrderBook orderBook) {
+			broker.getCreditLedger().revert(availableChange, reservedChange);
+		}
+	}
+
+	private record PositionEntry(Shareholder shareholder, Security security, int position) implements Entry {
+		@Override
+		public void undo(OrderBook orderBook) {
+			int change = positionOf(shareholder, security) - position;
+			if (change > 0) {
+				shareholder.decPosition(security, change);
+			} else {
+				shareholder.incPosition(security, -change);
+			}
+		}
+	}
+}
@@ -6,9 +6,10 @@ import ir.ramtung.tinyme.domain.exception.InvalidStopLimitPriceException;
 import ir.ramtung.tinyme.domain.exception.UpdateMinimumExecutionQuantityException;
 import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
 
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -28,11 +29,25 @@ public class Order {
 	protected int price;
 	protected Broker broker;
 	protected Shareholder shareholder;
-	protected final List<LocalDateTime> entryTimes = new ArrayList<>();
+	protected LocalDateTime entryTime;
 
 	@Builder.Default
 	protected OrderStatus status = OrderStatus.NEW;
 
+	@Getter(AccessLevel.NONE)
+	@EqualsAndHashCode.Exclude
+	@ToString.Exclude
+	final PriceLevel.Links levelLinks = new PriceLevel.Links();
+
+	// time priority: orders of the same price queue by entry time, in nanoseconds, and by arrival when the times are
+	// equal; losing priority puts an order behind every priority given out so far
+	private static final AtomicLong latestPriority = new AtomicLong();
+
+	@Getter(AccessLevel.NONE)
+	@EqualsAndHashCode.Exclude
+	@ToString.Exclude
+	long priority;
+
 	public Order(
 		long orderId,
 		Security security,
@@ -51,10 +66,11 @@ public class Order {
 		this.quantity = quantity;
 		this.minimumExecutionQuantity = minimumExecutionQuantity;
 		this.price = price;
-		this.entryTimes.add(entryTime);
+		this.entryTime = entryTime;
 		this.broker = broker;
 		this.shareholder = shareholder;
 		this.status = status;
+		this.priority = priorityOf(entryTime);
 	}
 
 	public Order(
@@ -77,9 +93,10 @@ public class Order {
 		this.broker = broker;
 		this.shareholder = shareholder;
 		this.status = status;
+		this.priority = latestPriority.incrementAndGet();
 	}
 
-	public Order(
+	Order(
 		long orderId,
 		Security security,
 		Side side,
@@ -88,19 +105,23 @@ public class Order {
 		int price,
 		Broker broker,
 		Shareholder shareholder,
-		List<LocalDateTime> entryTimes,
-		OrderStatus status
+		LocalDateTime entryTime,
+		OrderStatus status,
+		long priority
 	) {
-		this.orderId = orderId;
-		this.security = security;
-		this.side = side;
-		this.quantity = quantity;
-		this.minimumExecutionQuantity = minimumExecutionQuantity;
-		this.price = price;
-		this.entryTimes.addAll(entryTimes);
-		this.broker = broker;
-		this.shareholder = shareholder;
-		this.status = status;
+		this(
+			orderId,
+			security,
+			side,
+			quantity,
+			minimumExecutionQuantity,
+			price,
+			broker,
+			shareholder,
+			entryTime,
+			status
+		);
+		this.priority = priority;
 	}
 
 	public Order(
@@ -221,8 +242,9 @@ public class Order {
 			price,
 			broker,
 			shareholder,
-			new ArrayList<>(entryTimes),
-			OrderStatus.SNAPSHOT
+			entryTime,
+			OrderStatus.SNAPSHOT,
+			priority
 		);
 	}
 
@@ -236,8 +258,9 @@ public class Order {
 			price,
 			broker,
 			shareholder,
-			entryTimes,
-			this.status
+			entryTime,
+			this.status,
+			priority
 		);
 	}
 
@@ -262,25 +285,44 @@ public class Order {
 		if (quantity == 0 && status == OrderStatus.QUEUED) {
 			status = OrderStatus.DONE;
 		}
+		onQuantityChanged();
+	}
+
+	void restore(int quantity, OrderStatus status, long priority) {
+		this.quantity = quantity;
+		this.status = status;
+		this.priority = priority;
+		onQuantityChanged();
 	}
 
-	public void rollback(Order firstVersion) {
-		this.quantity = firstVersion.quantity;
-		copyEntryTimes(firstVersion.entryTimes);
+	void renewPriority() {
+		priority = latestPriority.incrementAndGet();
+	}
+
+	private static long priorityOf(LocalDateTime entryTime) {
+		if (entryTime == null) {
+			return latestPriority.incrementAndGet();
+		}
+
+		long priority = entryTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + entryTime.getNano();
+		latestPriority.accumulateAndGet(priority, Math::max);
+		return priority;
 	}
 
-	private void copyEntryTimes(List<LocalDateTime> entryTimes) {
-		this.entryTimes.clear();
-		entryTimes.forEach(time -> this.entryTimes.add(time));
+	protected void onQuantityChanged() {
+		if (levelLinks.book != null) {
+			levelLinks.book.onQuantityChanged(this);
+		}
 	}
 
 	public void makeQuantityZero() {
 		quantity = 0;
+		onQuantityChanged();
 	}
 
 	public boolean queuesBefore(Order order) {
 		if (price == order.getPrice()) {
-			return entryTimes.getLast().isBefore(order.entryTimes.getLast());
+			return priority < order.priority;
 		}
 
 		if (order.getSide() == Side.BUY) {
@@ -302,15 +344,18 @@ public class Order {
 	}
 
 	public void updateFromTempOrder(Order tempOrder) {
-		if (!this.willPriorityLostInUpdate(tempOrder) && this.side == Side.BUY) {
-			broker.increaseCreditBy(this.getValue());
-			broker.decreaseCreditBy(tempOrder.getValue());
+		boolean losesPriority = this.willPriorityLostInUpdate(tempOrder);
+		if (!losesPriority && this.side == Side.BUY) {
+			broker.releaseCredit(this.getValue() - tempOrder.getValue());
 		} else {
 			this.status = OrderStatus.UPDATING;
 		}
-		this.entryTimes.add(LocalDateTime.now());
+		if (losesPriority) {
+			renewPriority();
+		}
 		this.quantity = tempOrder.quantity;
 		this.price = tempOrder.price;
+		onQuantityChanged();
 	}
 
 	public long getValue() {
@@ -347,6 +392,11 @@ public class Order {
 		return this.status == OrderStatus.QUEUED;
 	}
 
+	// an order taken out of its queue for an update keeps its reservation until the update is settled
+	public boolean holdsReservedCredit() {
+		return this.status == OrderStatus.QUEUED || this.status == OrderStatus.UPDATING;
+	}
+
 	public boolean isDone() {
 		return this.status == OrderStatus.DONE;
 	}
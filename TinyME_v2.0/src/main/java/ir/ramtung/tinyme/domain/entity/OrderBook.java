@@ -1,28 +1,68 @@
 package ir.ramtung.tinyme.domain.entity;
 
 import ir.ramtung.tinyme.domain.exception.NotFoundException;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.ListIterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.IntConsumer;
 import lombok.Getter;
 
-@Getter
 public class OrderBook {
 
-	private final LinkedList<Order> buyQueue;
-	private final LinkedList<Order> sellQueue;
-	private final LinkedList<Order> stopLimitOrderSellQueue;
-	private final LinkedList<Order> stopLimitOrderBuyQueue;
+	private final OrderQueue buyQueue;
+	private final OrderQueue sellQueue;
+	private final OrderQueue stopLimitOrderSellQueue;
+	private final OrderQueue stopLimitOrderBuyQueue;
+
+	private final OrderIdIndex buyOrderIds;
+	private final OrderIdIndex sellOrderIds;
+
+	private final Map<Shareholder, Integer> queuedSellQuantities;
+
+	// prices of the active levels whose displayed quantity or order count changed, see takeChangedLevels
+	private final Set<Integer> changedBuyLevels = new LinkedHashSet<>();
+	private final Set<Integer> changedSellLevels = new LinkedHashSet<>();
+
+	// the tops of the sides as takeTopOfBookChange last saw them
+	private TopOfBook lastBid = TopOfBook.EMPTY;
+	private TopOfBook lastAsk = TopOfBook.EMPTY;
+
+	@Getter
+	private final AuctionCurves auctionCurves;
 
 	public OrderBook() {
-		buyQueue = new LinkedList<>();
-		sellQueue = new LinkedList<>();
-		stopLimitOrderSellQueue = new LinkedList<>();
-		stopLimitOrderBuyQueue = new LinkedList<>();
+		buyQueue = OrderQueue.forSide(Side.BUY);
+		sellQueue = OrderQueue.forSide(Side.SELL);
+		stopLimitOrderSellQueue = OrderQueue.forStopLimitSide(Side.SELL);
+		stopLimitOrderBuyQueue = OrderQueue.forStopLimitSide(Side.BUY);
+		buyOrderIds = new OrderIdIndex();
+		sellOrderIds = new OrderIdIndex();
+		queuedSellQuantities = new HashMap<>();
+		auctionCurves = new AuctionCurves();
+	}
+
+	public List<Order> getBuyQueue() {
+		return buyQueue.asList();
+	}
+
+	public List<Order> getSellQueue() {
+		return sellQueue.asList();
+	}
+
+	public List<Order> getStopLimitOrderBuyQueue() {
+		return stopLimitOrderBuyQueue.asList();
+	}
+
+	public List<Order> getStopLimitOrderSellQueue() {
+		return stopLimitOrderSellQueue.asList();
 	}
 
 	public Order getLowestPriorityActiveOrder(Side side) {
-		var queue = (side == Side.BUY) ? buyQueue : sellQueue;
+		var queue = getQueue(side);
 
 		if (queue.isEmpty()) {
 			throw new NotFoundException();
@@ -32,7 +72,7 @@ public class OrderBook {
 	}
 
 	public Order getHighestPriorityActiveOrder(Side side) {
-		var queue = (side == Side.BUY) ? buyQueue : sellQueue;
+		var queue = getQueue(side);
 
 		if (queue.isEmpty()) {
 			throw new NotFoundException();
@@ -42,74 +82,148 @@ public class OrderBook {
 	}
 
 	public void enqueue(Order order) {
-		List<Order> queue = getQueue(order);
-		ListIterator<Order> it = queue.listIterator();
-		while (it.hasNext()) {
-			if (order.queuesBefore(it.next())) {
-				it.previous();
-				break;
-			}
-		}
 		order.queue();
-		it.add(order);
+		getQueue(order).add(order);
+		getOrderIds(order.getSide()).put(order.getOrderId(), order);
+		book(order);
+		markLevelChanged(order, order.getPrice());
+	}
+
+	// drops every order, before the book is loaded again
+	public void clear() {
+		buyQueue.clear();
+		sellQueue.clear();
+		stopLimitOrderBuyQueue.clear();
+		stopLimitOrderSellQueue.clear();
+		buyOrderIds.clear();
+		sellOrderIds.clear();
+		queuedSellQuantities.clear();
+		auctionCurves.clear();
+		changedBuyLevels.clear();
+		changedSellLevels.clear();
+		lastBid = TopOfBook.EMPTY;
+		lastAsk = TopOfBook.EMPTY;
 	}
 
-	private LinkedList<Order> getQueue(Side side) {
+	// bulk loading: the orders are given in time priority order and each queue takes its orders in one go
+	public void enqueueAll(List<Order> orders) {
+		Map<OrderQueue, List<Order>> ordersByQueue = new HashMap<>();
+		for (Order order : orders) {
+			order.queue();
+			ordersByQueue.computeIfAbsent(getQueue(order), queue -> new ArrayList<>()).add(order);
+		}
+		ordersByQueue.forEach(OrderQueue::addAll);
+		for (Order order : orders) {
+			getOrderIds(order.getSide()).put(order.getOrderId(), order);
+			book(order);
+		}
+	}
+
+	private OrderQueue getQueue(Side side) {
 		return side == Side.BUY ? buyQueue : sellQueue;
 	}
 
-	private List<Order> getQueue(Order order) {
+	private OrderQueue getStopLimitQueue(Side side) {
+		return (side == Side.BUY) ? stopLimitOrderBuyQueue : stopLimitOrderSellQueue;
+	}
+
+	private OrderQueue getQueue(Order order) {
 		if (order instanceof StopLimitOrder) {
-			return (order.getSide() == Side.BUY) ? stopLimitOrderBuyQueue : stopLimitOrderSellQueue;
+			return getStopLimitQueue(order.getSide());
 		} else {
-			return (order.getSide() == Side.BUY) ? buyQueue : sellQueue;
+			return getQueue(order.getSide());
 		}
 	}
 
-	public Order findByOrderId(Side side, long orderId) {
-		List<Order> queue = (side == Side.BUY) ? buyQueue : sellQueue;
-		Order order = searchForOrderInQueue(side, orderId, queue);
-		if (order != null) {
-			return order;
+	private OrderIdIndex getOrderIds(Side side) {
+		return (side == Side.BUY) ? buyOrderIds : sellOrderIds;
+	}
+
+	private void removeFromOrderIds(Order order) {
+		OrderIdIndex orderIds = getOrderIds(order.getSide());
+		if (orderIds.get(order.getOrderId()) == order) {
+			orderIds.remove(order.getOrderId());
 		}
+	}
 
-		queue = (side == Side.BUY) ? stopLimitOrderBuyQueue : stopLimitOrderSellQueue;
-		order = searchForOrderInQueue(side, orderId, queue);
+	private void book(Order order) {
+		order.levelLinks.book = this;
+		onQuantityChanged(order);
+	}
 
-		if (order == null) {
-			throw new NotFoundException();
+	private void unbook(Order order) {
+		if (order.levelLinks.book != this) {
+			return;
 		}
-		return order;
+
+		addQueuedSellQuantity(order, -order.levelLinks.bookedQuantity);
+		addToAuctionCurves(order, -order.levelLinks.bookedQuantity);
+		order.levelLinks.book = null;
+		order.levelLinks.bookedQuantity = 0;
+		order.levelLinks.bookedDisplayedQuantity = 0;
 	}
 
-	private Order searchForOrderInQueue(Side side, long orderId, List<Order> queue) {
-		for (Order order : queue) {
-			if (order.getOrderId() == orderId) {
-				return order;
+	void onQuantityChanged(Order order) {
+		PriceLevel.Links links = order.levelLinks;
+		int amount = order.getTotalQuantity() - links.bookedQuantity;
+		int displayedAmount = displayedQuantityOf(order) - links.bookedDisplayedQuantity;
+		if (links.level != null) {
+			links.level.addQuantities(amount, displayedAmount);
+			if (displayedAmount != 0) {
+				markLevelChanged(order, links.level.getPrice());
 			}
 		}
-		return null;
+		addQueuedSellQuantity(order, amount);
+		addToAuctionCurves(order, amount);
+		links.bookedQuantity += amount;
+		links.bookedDisplayedQuantity += displayedAmount;
 	}
 
-	public boolean isThereOrderWithId(Side side, long orderId) {
-		try {
-			findByOrderId(side, orderId);
-			return true;
-		} catch (NotFoundException exp) {
-			return false;
+	private static int displayedQuantityOf(Order order) {
+		if (order instanceof IcebergOrder icebergOrder) {
+			return icebergOrder.getDisplayedQuantity();
+		}
+		return order.getTotalQuantity();
+	}
+
+	private void addQueuedSellQuantity(Order order, int amount) {
+		if (order.isSell() && amount != 0) {
+			queuedSellQuantities.merge(order.getShareholder(), amount, (current, added) -> {
+				int total = current + added;
+				return (total == 0) ? null : total;
+			});
+		}
+	}
+
+	private void addToAuctionCurves(Order order, int amount) {
+		if (!(order instanceof StopLimitOrder)) {
+			auctionCurves.add(order.getSide(), order.getPrice(), amount);
 		}
 	}
 
+	public Order findByOrderId(Side side, long orderId) {
+		Order order = getOrderIds(side).get(orderId);
+		if (order == null) {
+			throw new NotFoundException();
+		}
+		return order;
+	}
+
+	public boolean isThereOrderWithId(Side side, long orderId) {
+		return getOrderIds(side).contains(orderId);
+	}
+
 	public void removeByOrderId(Side side, long orderId) {
 		Order targetOrder = findByOrderId(side, orderId);
-		List<Order> queue = getQueue(targetOrder);
-		targetOrder.delete();
-		queue.remove(targetOrder);
+		removeOrder(targetOrder);
 	}
 
 	public void removeOrder(Order order) {
-		List<Order> queue = getQueue(order);
-		queue.remove(order);
+		if (getQueue(order).remove(order)) {
+			markLevelChanged(order, order.getPrice());
+		}
+		removeFromOrderIds(order);
+		unbook(order);
 		order.delete();
 	}
 
@@ -126,10 +240,42 @@ public class OrderBook {
 		return null;
 	}
 
+	public MatchForecast forecastMatch(Order newOrder) {
+		int remainder = newOrder.getQuantity();
+		long value = 0;
+		boolean tradingWithOwnBroker = false;
+
+		// queued icebergs are replenished while matching goes on, so a level can fill its total quantity
+		for (PriceLevel level : getQueue(newOrder.getSide().opposite()).getLevels()) {
+			if (remainder == 0 || !newOrder.canTradeWithPrice(level.getPrice())) {
+				break;
+			}
+
+			int quantity = Math.min(remainder, level.getTotalQuantity());
+			remainder -= quantity;
+			value += (long) level.getPrice() * quantity;
+			tradingWithOwnBroker = tradingWithOwnBroker || level.hasOrderOf(newOrder.getBroker());
+		}
+
+		return new MatchForecast(newOrder.getQuantity() - remainder, value, tradingWithOwnBroker);
+	}
+
 	public void putBack(Order order) {
-		LinkedList<Order> queue = getQueue(order.getSide());
+		OrderQueue queue = getQueue(order.getSide());
 		order.queue();
 		queue.addFirst(order);
+		getOrderIds(order.getSide()).put(order.getOrderId(), order);
+		book(order);
+		markLevelChanged(order, order.getPrice());
+	}
+
+	public void requeue(Order order) {
+		order.renewPriority();
+		reposition(order);
+	}
+
+	void reposition(Order order) {
+		getQueue(order.getSide()).requeue(order);
 	}
 
 	public void restoreSellOrder(Order sellOrder) {
@@ -137,54 +283,156 @@ public class OrderBook {
 		putBack(sellOrder);
 	}
 
+	// the best levels of a side, best first; the levels keep their quantities up to date as orders change, so
+	// this costs the levels it returns rather than the orders behind them
+	public List<PriceLevel> getTopLevels(Side side, int count) {
+		List<PriceLevel> levels = new ArrayList<>();
+		for (PriceLevel level : getQueue(side).getLevels()) {
+			if (levels.size() == count) {
+				break;
+			}
+			levels.add(level);
+		}
+		return levels;
+	}
+
+	// read off the best level, which the queue keeps in place and up to date on every change, so it costs the same
+	// however deep the side is and never fails on an empty one
+	public TopOfBook getTopOfBook(Side side) {
+		PriceLevel level = getQueue(side).getBestLevel();
+		if (level == null) {
+			return TopOfBook.EMPTY;
+		}
+		return new TopOfBook(level.getPrice(), level.getDisplayedQuantity(), level.size());
+	}
+
+	// whether the top of either side differs from the last call, which is then remembered
+	public boolean takeTopOfBookChange() {
+		TopOfBook bid = getTopOfBook(Side.BUY);
+		TopOfBook ask = getTopOfBook(Side.SELL);
+		if (bid.equals(lastBid) && ask.equals(lastAsk)) {
+			return false;
+		}
+
+		lastBid = bid;
+		lastAsk = ask;
+		return true;
+	}
+
+	// takes the book as it stands as the base of the changes taken from now on, once it has been loaded
+	public void forgetChanges() {
+		changedBuyLevels.clear();
+		changedSellLevels.clear();
+		lastBid = getTopOfBook(Side.BUY);
+		lastAsk = getTopOfBook(Side.SELL);
+	}
+
+	public PriceLevel getActiveLevel(Side side, int price) {
+		return getQueue(side).getLevel(price);
+	}
+
+	// hands over the price of every active level of the side changed since the last call, once however many times
+	// it changed, and forgets them
+	public void takeChangedLevels(Side side, IntConsumer consumer) {
+		Set<Integer> changedLevels = getChangedLevels(side);
+		for (int price : changedLevels) {
+			consumer.accept(price);
+		}
+		changedLevels.clear();
+	}
+
+	private void markLevelChanged(Order order, int price) {
+		// stop limit orders wait out of the market, so their queues are not shown
+		if (!(order instanceof StopLimitOrder)) {
+			getChangedLevels(order.getSide()).add(price);
+		}
+	}
+
+	private Set<Integer> getChangedLevels(Side side) {
+		return (side == Side.BUY) ? changedBuyLevels : changedSellLevels;
+	}
+
 	public boolean hasOrderOfType(Side side) {
 		return !getQueue(side).isEmpty();
 	}
 
 	public int totalSellQuantityByShareholder(Shareholder shareholder) {
+		int total = queuedSellQuantities.getOrDefault(shareholder, 0);
+		// self-check against the full scan whenever assertions are enabled, as they are in tests
+		assert total == scanTotalSellQuantityByShareholder(shareholder)
+			: "queued sell quantity of " + shareholder + " is out of sync with the order book";
+		return total;
+	}
+
+	public int scanTotalSellQuantityByShareholder(Shareholder shareholder) {
 		return (
-			sellQueue
+			getSellQueue()
 				.stream()
-				.filter(order -> order.getShareholder().equals(shareholder))
+				.filter(order -> Objects.equals(order.getShareholder(), shareholder))
 				.mapToInt(Order::getTotalQuantity)
 				.sum() +
-			stopLimitOrderSellQueue
+			getStopLimitOrderSellQueue()
 				.stream()
-				.filter(order -> order.getShareholder().equals(shareholder))
+				.filter(order -> Objects.equals(order.getShareholder(), shareholder))
 				.mapToInt(Order::getTotalQuantity)
 				.sum()
 		);
 	}
 
-	private StopLimitOrder findSatisfiedStopLimitOrderBuyQueue(int lastTradePrice) {
-		return findSatisfiedStopLimitOrder(stopLimitOrderBuyQueue, lastTradePrice);
-	}
-
-	private StopLimitOrder findSatisfiedStopLimitOrderSellQueue(int lastTradePrice) {
-		return findSatisfiedStopLimitOrder(stopLimitOrderSellQueue, lastTradePrice);
-	}
-
 	public StopLimitOrder getStopLimitOrder(int lastTradePrice) {
-		StopLimitOrder sloOrder = findSatisfiedStopLimitOrderBuyQueue(lastTradePrice);
+		StopLimitOrder sloOrder = findSatisfiedStopLimitOrder(stopLimitOrderBuyQueue, lastTradePrice);
 
 		if (sloOrder == null) {
-			sloOrder = findSatisfiedStopLimitOrderSellQueue(lastTradePrice);
+			sloOrder = findSatisfiedStopLimitOrder(stopLimitOrderSellQueue, lastTradePrice);
 		}
 
 		return sloOrder;
 	}
 
-	private StopLimitOrder findSatisfiedStopLimitOrder(List<Order> queue, int lastTradePrice) {
+	// takes out every order the price triggers in one range of each queue; the sides are merged by time priority,
+	// keeping each side in its own order, so the orders activate in the order they were entered whatever their side
+	public List<StopLimitOrder> getStopLimitOrders(int lastTradePrice) {
+		List<StopLimitOrder> buys = pollSatisfiedStopLimitOrders(stopLimitOrderBuyQueue, lastTradePrice);
+		List<StopLimitOrder> sells = pollSatisfiedStopLimitOrders(stopLimitOrderSellQueue, lastTradePrice);
+		List<StopLimitOrder> sloOrders = new ArrayList<>(buys.size() + sells.size());
+		int buy = 0;
+		int sell = 0;
+		while (buy < buys.size() && sell < sells.size()) {
+			if (sells.get(sell).priority < buys.get(buy).priority) {
+				sloOrders.add(sells.get(sell++));
+			} else {
+				sloOrders.add(buys.get(buy++));
+			}
+		}
+		sloOrders.addAll(buys.subList(buy, buys.size()));
+		sloOrders.addAll(sells.subList(sell, sells.size()));
+		return sloOrders;
+	}
+
+	private StopLimitOrder findSatisfiedStopLimitOrder(OrderQueue queue, int lastTradePrice) {
 		if (queue.isEmpty()) {
 			return null;
 		}
 
 		StopLimitOrder sloOrder = (StopLimitOrder) queue.getFirst();
 		if (sloOrder.isSatisfied(lastTradePrice)) {
-			sloOrder.delete();
 			queue.remove(sloOrder);
+			removeFromOrderIds(sloOrder);
+			unbook(sloOrder);
+			sloOrder.delete();
 			return sloOrder;
 		}
 		return null;
 	}
+
+	private List<StopLimitOrder> pollSatisfiedStopLimitOrders(OrderQueue queue, int lastTradePrice) {
+		List<StopLimitOrder> sloOrders = new ArrayList<>();
+		for (Order order : queue.pollUpTo(lastTradePrice)) {
+			removeFromOrderIds(order);
+			unbook(order);
+			order.delete();
+			sloOrders.add((StopLimitOrder) order);
+		}
+		return sloOrders;
+	}
 }
@@ -0,0 +1,119 @@
+package ir.ramtung.tinyme.domain.entity;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+public class OrderIdIndex {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private long[] keys;
+	private Order[] values;
+	private int mask;
+	private int size;
+
+	public OrderIdIndex() {
+		allocate(INITIAL_CAPACITY);
+	}
+
+	public Order get(long orderId) {
+		int slot = findSlot(orderId);
+		return values[slot];
+	}
+
+	public boolean contains(long orderId) {
+		return get(orderId) != null;
+	}
+
+	public void put(long orderId, Order order) {
+		Objects.requireNonNull(order);
+		int slot = findSlot(orderId);
+		if (values[slot] == null) {
+			size++;
+		}
+		keys[slot] = orderId;
+		values[slot] = order;
+
+		if (size * 2 > values.length) {
+			rehash(values.length * 2);
+		}
+	}
+
+	public Order remove(long orderId) {
+		int slot = findSlot(orderId);
+		Order removed = values[slot];
+		if (removed == null) {
+			return null;
+		}
+
+		values[slot] = null;
+		size--;
+		shiftBackFrom(slot);
+		return removed;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		Arrays.fill(values, null);
+		size = 0;
+	}
+
+	private int findSlot(long orderId) {
+		int slot = idealSlot(orderId);
+		while (values[slot] != null && keys[slot] != orderId) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private int idealSlot(long orderId) {
+		long hash = orderId * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32)) & mask;
+	}
+
+	// linear probing leaves no tombstones: entries after a hole are moved back into it when allowed
+	private void shiftBackFrom(int hole) {
+		int slot = hole;
+		while (true) {
+			slot = (slot + 1) & mask;
+			if (values[slot] == null) {
+				return;
+			}
+
+			int ideal = idealSlot(keys[slot]);
+			boolean canMove = (hole <= slot) ? (ideal <= hole || ideal > slot) : (ideal <= hole && ideal > slot);
+			if (canMove) {
+				keys[hole] = keys[slot];
+				values[hole] = values[slot];
+				values[slot] = null;
+				hole = slot;
+			}
+		}
+	}
+
+	private void rehash(int capacity) {
+		long[] oldKeys = keys;
+		Order[] oldValues = values;
+		allocate(capacity);
+		for (int i = 0; i < oldValues.length; i++) {
+			if (oldValues[i] != null) {
+				int slot = findSlot(oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = new Order[capacity];
+		mask = capacity - 1;
+	}
+}
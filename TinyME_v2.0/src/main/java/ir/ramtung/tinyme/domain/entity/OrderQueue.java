@@ -0,0 +1,211 @@
+package ir.ramtung.tinyme.domain.entity;
+
+import java.util.AbstractSequentialList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.function.ToIntFunction;
+
+public class OrderQueue {
+
+	private final TreeMap<Integer, PriceLevel> levels;
+	private final ToIntFunction<Order> priceOf;
+	private PriceLevel bestLevel;
+	private int size;
+
+	private OrderQueue(Comparator<Integer> priceOrder, ToIntFunction<Order> priceOf) {
+		this.levels = new TreeMap<>(priceOrder);
+		this.priceOf = priceOf;
+	}
+
+	public static OrderQueue forSide(Side side) {
+		return new OrderQueue(
+			side == Side.BUY ? Comparator.reverseOrder() : Comparator.naturalOrder(),
+			Order::getPrice
+		);
+	}
+
+	public static OrderQueue forStopLimitSide(Side side) {
+		return new OrderQueue(
+			side == Side.BUY ? Comparator.naturalOrder() : Comparator.reverseOrder(),
+			order -> ((StopLimitOrder) order).getStopPrice()
+		);
+	}
+
+	public void add(Order order) {
+		PriceLevel level = levels.computeIfAbsent(priceOf.applyAsInt(order), PriceLevel::new);
+		level.add(order);
+		onLevelGrown(level);
+	}
+
+	// sorts the orders by price, keeping their order within a price as their time priority, and adds them
+	// level by level, so the price levels are looked up once per level rather than once per order
+	public void addAll(List<Order> orders) {
+		orders.sort(Comparator.comparing(priceOf::applyAsInt, levels.comparator()));
+		PriceLevel level = null;
+		for (Order order : orders) {
+			int price = priceOf.applyAsInt(order);
+			if (level == null || level.getPrice() != price) {
+				level = levels.computeIfAbsent(price, PriceLevel::new);
+			}
+			level.add(order);
+			onLevelGrown(level);
+		}
+	}
+
+	public void addFirst(Order order) {
+		PriceLevel level = levels.computeIfAbsent(priceOf.applyAsInt(order), PriceLevel::new);
+		level.addFirst(order);
+		onLevelGrown(level);
+	}
+
+	private void onLevelGrown(PriceLevel level) {
+		size++;
+		if (bestLevel == null || levels.comparator().compare(level.getPrice(), bestLevel.getPrice()) < 0) {
+			bestLevel = level;
+		}
+	}
+
+	public boolean remove(Order order) {
+		PriceLevel level = order.levelLinks.level;
+		if (level == null || !level.remove(order)) {
+			return false;
+		}
+
+		size--;
+		if (level.isEmpty()) {
+			levels.remove(level.getPrice());
+			if (level == bestLevel) {
+				bestLevel = levels.isEmpty() ? null : levels.firstEntry().getValue();
+			}
+		}
+		return true;
+	}
+
+	public void clear() {
+		levels.clear();
+		bestLevel = null;
+		size = 0;
+	}
+
+	public void requeue(Order order) {
+		PriceLevel level = order.levelLinks.level;
+		if (level == null) {
+			throw new IllegalStateException("Order is not queued in a price level");
+		}
+
+		level.remove(order);
+		level.add(order);
+	}
+
+	public List<Order> pollUpTo(int price) {
+		NavigableMap<Integer, PriceLevel> polledLevels = levels.headMap(price, true);
+		List<Order> orders = new ArrayList<>();
+		for (PriceLevel level : polledLevels.values()) {
+			level.drainTo(orders);
+		}
+
+		size -= orders.size();
+		polledLevels.clear();
+		bestLevel = levels.isEmpty() ? null : levels.firstEntry().getValue();
+		return orders;
+	}
+
+	public Order getFirst() {
+		return (bestLevel == null) ? null : bestLevel.getFirst();
+	}
+
+	public Order getLast() {
+		return levels.isEmpty() ? null : levels.lastEntry().getValue().getLast();
+	}
+
+	public PriceLevel getLevel(int price) {
+		return levels.get(price);
+	}
+
+	public PriceLevel getBestLevel() {
+		return bestLevel;
+	}
+
+	public Collection<PriceLevel> getLevels() {
+		return Collections.unmodifiableCollection(levels.values());
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public List<Order> asList() {
+		return new OrderListView();
+	}
+
+	private List<Order> toPriorityList() {
+		List<Order> orders = new ArrayList<>(size);
+		for (PriceLevel level : levels.values()) {
+			for (Order order = level.getFirst(); order != null; order = order.levelLinks.next) {
+				orders.add(order);
+			}
+		}
+		return Collections.unmodifiableList(orders);
+	}
+
+	// iterates the levels and their links in place; positional access is rare and works on a copy
+	private class OrderListView extends AbstractSequentialList<Order> {
+
+		@Override
+		public Iterator<Order> iterator() {
+			return new OrderIterator();
+		}
+
+		@Override
+		public ListIterator<Order> listIterator(int index) {
+			return toPriorityList().listIterator(index);
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+
+	private class OrderIterator implements Iterator<Order> {
+
+		private final Iterator<PriceLevel> levelIterator = levels.values().iterator();
+		private Order next;
+
+		OrderIterator() {
+			next = firstOfNextLevel();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		@Override
+		public Order next() {
+			if (next == null) {
+				throw new NoSuchElementException();
+			}
+
+			Order order = next;
+			next = (order.levelLinks.next != null) ? order.levelLinks.next : firstOfNextLevel();
+			return order;
+		}
+
+		private Order firstOfNextLevel() {
+			return levelIterator.hasNext() ? levelIterator.next().getFirst() : null;
+		}
+	}
+}
@@ -0,0 +1,155 @@
+package ir.ramtung.tinyme.domain.entity;
+
+import java.util.List;
+import lombok.Getter;
+
+public class PriceLevel {
+
+	@Getter
+	private final int price;
+
+	@Getter
+	private int totalQuantity;
+
+	// what the level shows to the market, which counts only the displayed part of icebergs
+	@Getter
+	private int displayedQuantity;
+
+	private Order head;
+	private Order tail;
+	private int size;
+
+	public PriceLevel(int price) {
+		this.price = price;
+	}
+
+	public void add(Order order) {
+		// new orders almost always arrive last, so the time priority is searched from the tail
+		Order previous = tail;
+		while (previous != null && order.queuesBefore(previous)) {
+			previous = previous.levelLinks.prev;
+		}
+		linkAfter(previous, order);
+	}
+
+	public void addFirst(Order order) {
+		linkAfter(null, order);
+	}
+
+	public boolean remove(Order order) {
+		Links links = order.levelLinks;
+		if (links.level != this) {
+			return false;
+		}
+
+		if (links.prev == null) {
+			head = links.next;
+		} else {
+			links.prev.levelLinks.next = links.next;
+		}
+
+		if (links.next == null) {
+			tail = links.prev;
+		} else {
+			links.next.levelLinks.prev = links.prev;
+		}
+
+		totalQuantity -= links.bookedQuantity;
+		displayedQuantity -= links.bookedDisplayedQuantity;
+		links.clear();
+		size--;
+		return true;
+	}
+
+	public void drainTo(List<Order> orders) {
+		Order order = head;
+		while (order != null) {
+			Order next = order.levelLinks.next;
+			order.levelLinks.clear();
+			orders.add(order);
+			order = next;
+		}
+
+		head = null;
+		tail = null;
+		size = 0;
+		totalQuantity = 0;
+		displayedQuantity = 0;
+	}
+
+	public Order getFirst() {
+		return head;
+	}
+
+	public Order getLast() {
+		return tail;
+	}
+
+	public boolean hasOrderOf(Broker broker) {
+		for (Order order = head; order != null; order = order.levelLinks.next) {
+			if (broker.equals(order.getBroker())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	private void linkAfter(Order previous, Order order) {
+		Links links = order.levelLinks;
+		if (links.level != null) {
+			throw new IllegalStateException("Order is already linked to a price level");
+		}
+
+		Order next = (previous == null) ? head : previous.levelLinks.next;
+		links.level = this;
+		links.prev = previous;
+		links.next = next;
+
+		if (previous == null) {
+			head = order;
+		} else {
+			previous.levelLinks.next = order;
+		}
+
+		if (next == null) {
+			tail = order;
+		} else {
+			next.levelLinks.prev = order;
+		}
+
+		size++;
+		totalQuantity += links.bookedQuantity;
+		displayedQuantity += links.bookedDisplayedQuantity;
+	}
+
+	void addQuantities(int totalAmount, int displayedAmount) {
+		totalQuantity += totalAmount;
+		displayedQuantity += displayedAmount;
+	}
+
+	static final class Links {
+
+		PriceLevel level;
+		Order prev;
+		Order next;
+
+		// owned by OrderBook, which keeps them across moves between price levels
+		OrderBook book;
+		int bookedQuantity;
+		int bookedDisplayedQuantity;
+
+		void clear() {
+			level = null;
+			prev = null;
+			next = null;
+		}
+	}
+}
@@ -52,7 +52,11 @@ public class Security {
 	@Builder.Default
 	private SecurityState state = SecurityState.CONTINUOUS;
 
+	// every change of the order book or the matching state goes through the methods below, which mark it
+	private final DirtyMark<Security> dirtyMark = new DirtyMark<>(this);
+
 	public SecurityResponse addNewOrder(Order newOrder) {
+		dirtyMark.mark();
 		List<SecurityStats> stats = currentBehave.addNewOrder(newOrder, orderBook, lastTradePrice);
 		updateLastTradePrice(stats);
 		activateStopLimitOrders(stats);
@@ -60,6 +64,7 @@ public class Security {
 	}
 
 	public SecurityResponse updateOrder(Order tempOrder) {
+		dirtyMark.mark();
 		Order mainOrder = findByOrderId(tempOrder.getSide(), tempOrder.getOrderId());
 		List<SecurityStats> stats = currentBehave.updateOrder(tempOrder, mainOrder, orderBook, lastTradePrice);
 		updateLastTradePrice(stats);
@@ -73,12 +78,14 @@ public class Security {
 	}
 
 	public SecurityResponse deleteOrder(Side side, long orderId) {
+		dirtyMark.mark();
 		Order order = findByOrderId(side, orderId);
 		List<SecurityStats> stats = currentBehave.deleteOrder(order, orderBook, lastTradePrice);
 		return new SecurityResponse(stats);
 	}
 
 	public SecurityResponse changeMatchingState(SecurityState newState) {
+		dirtyMark.mark();
 		List<SecurityStats> stats = currentBehave.changeMatchingState(orderBook, lastTradePrice, newState);
 		updateLastTradePrice(stats);
 		currentBehave = getBehaveForState(newState);
@@ -93,6 +100,14 @@ public class Security {
 		}
 	}
 
+	// puts back the state of saved data as it was, without running the actions of a state change
+	public void restore(SecurityState state, int lastTradePrice) {
+		dirtyMark.mark();
+		this.currentBehave = getBehaveForState(state);
+		this.state = state;
+		this.lastTradePrice = lastTradePrice;
+	}
+
 	private void setState(SecurityState newState) {
 		this.state = newState;
 	}
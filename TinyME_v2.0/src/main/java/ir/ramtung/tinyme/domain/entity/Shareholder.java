@@ -1,7 +1,7 @@
 package ir.ramtung.tinyme.domain.entity;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -19,13 +19,19 @@ public class Shareholder {
 	@Getter
 	private String name;
 
+	// positions on securities of different matching shards change concurrently
 	@Getter
 	@Builder.Default
-	private Map<Security, Integer> positions = new HashMap<>();
+	private Map<Security, Integer> positions = new ConcurrentHashMap<>();
+
+	@Getter
+	@ToString.Exclude
+	private final DirtyMark<Shareholder> dirtyMark = new DirtyMark<>(this);
 
 	public void incPosition(Security security, int amount) {
 		assert amount >= 0;
 		positions.put(security, positions.getOrDefault(security, 0) + amount);
+		dirtyMark.mark();
 	}
 
 	public void decPosition(Security security, int amount) {
@@ -37,6 +43,14 @@ public class Shareholder {
 		}
 
 		positions.put(security, currentPositions - amount);
+		dirtyMark.mark();
+	}
+
+	// puts back the positions of saved data
+	public void restorePositions(Map<Security, Integer> savedPositions) {
+		positions.clear();
+		positions.putAll(savedPositions);
+		dirtyMark.mark();
 	}
 
 	public boolean hasEnoughPositionsOn(Security security, int position) {
@@ -3,7 +3,6 @@ package ir.ramtung.tinyme.domain.entity;
 import ir.ramtung.tinyme.domain.exception.InvalidStopLimitPriceException;
 import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
 import java.time.LocalDateTime;
-import java.util.List;
 
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -65,7 +64,7 @@ public class StopLimitOrder extends Order {
 		this.requestId =  requestId;
 	}
 
-	public StopLimitOrder(
+	StopLimitOrder(
 		long orderId,
 		Security security,
 		Side side,
@@ -73,11 +72,12 @@ public class StopLimitOrder extends Order {
 		int price,
 		Broker broker,
 		Shareholder shareholder,
-		List<LocalDateTime> entryTimes,
+		LocalDateTime entryTime,
 		int stopPrice,
-		OrderStatus status
+		OrderStatus status,
+		long priority
 	) {
-		super(orderId, security, side, quantity, 0, price, broker, shareholder, entryTimes, status);
+		super(orderId, security, side, quantity, 0, price, broker, shareholder, entryTime, status, priority);
 		this.stopPrice = stopPrice;
 	}
 
@@ -112,9 +112,10 @@ public class StopLimitOrder extends Order {
 			price,
 			broker,
 			shareholder,
-			entryTimes,
+			entryTime,
 			stopPrice,
-			OrderStatus.SNAPSHOT
+			OrderStatus.SNAPSHOT,
+			priority
 		);
 	}
 
@@ -122,7 +123,7 @@ public class StopLimitOrder extends Order {
 	public boolean queuesBefore(Order order) {
 		StopLimitOrder slo = (StopLimitOrder) order;
 		if (stopPrice == slo.stopPrice) {
-			return entryTimes.getLast().isBefore(slo.entryTimes.getLast());
+			return priority < slo.priority;
 		}
 		if (this.side == Side.BUY) {
 			return stopPrice < slo.getStopPrice();
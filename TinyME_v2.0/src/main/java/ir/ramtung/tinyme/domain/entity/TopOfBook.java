@@ -0,0 +1,7 @@
+package ir.ramtung.tinyme.domain.entity;
+
+// the best level of one side as the market sees it: its price, displayed quantity and number of orders, all zero
+// when the side is empty
+public record TopOfBook(int price, int quantity, int orderCount) {
+	public static final TopOfBook EMPTY = new TopOfBook(0, 0, 0);
+}
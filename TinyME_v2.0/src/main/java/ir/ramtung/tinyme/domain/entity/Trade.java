@@ -16,8 +16,6 @@ public class Trade {
 	private int quantity;
 	private Order buy;
 	private Order sell;
-	private Order sellFirstVersion;
-	private Order buyFirstVersion;
 	private boolean isBuyQueued;
 
 	public Trade(Security security, int price, int quantity, Order order1, Order order2) {
@@ -27,15 +25,11 @@ public class Trade {
 		if (order1.getSide() == Side.BUY) {
 			this.buy = order1;
 			this.sell = order2;
-			this.sellFirstVersion = order2.snapshot();
-			this.buyFirstVersion = order1.snapshot();
 		} else {
 			this.buy = order2;
 			this.sell = order1;
-			this.sellFirstVersion = order1.snapshot();
-			this.buyFirstVersion = order2.snapshot();
 		}
-		this.isBuyQueued = (this.buy.getStatus() == OrderStatus.QUEUED);
+		this.isBuyQueued = this.buy.holdsReservedCredit();
 	}
 
 	public Trade(
@@ -44,13 +38,9 @@ public class Trade {
 		int quantity,
 		Order order1,
 		Order order2,
-		Order sellFirstVersion,
-		Order buyFirstVersion,
 		boolean isBuyQueued
 	) {
 		this(security, price, quantity, order1, order2);
-		this.sellFirstVersion = sellFirstVersion;
-		this.buyFirstVersion = buyFirstVersion;
 		this.isBuyQueued = isBuyQueued;
 	}
 
@@ -62,16 +52,12 @@ public class Trade {
 		if (order1.getSide() == Side.BUY) {
 			this.buy = order1;
 			this.sell = order2;
-			this.sellFirstVersion = order2.snapshot();
-			this.buyFirstVersion = order1.snapshot();
 		} else {
 			this.buy = order2;
 			this.sell = order1;
-			this.sellFirstVersion = order1.snapshot();
-			this.buyFirstVersion = order2.snapshot();
 		}
 
-		this.isBuyQueued = (this.buy.getStatus() == OrderStatus.QUEUED);
+		this.isBuyQueued = this.buy.holdsReservedCredit();
 	}
 
 	public Trade(Order sellOrder, Order buyOrder, int price) {
@@ -80,17 +66,20 @@ public class Trade {
 		this.quantity = Math.min(sellOrder.getQuantity(), buyOrder.getQuantity());
 		this.buy = buyOrder;
 		this.sell = sellOrder;
-		this.buyFirstVersion = buyOrder.snapshot();
-		this.sellFirstVersion = sellOrder.snapshot();
-		this.isBuyQueued = (buyOrder.status == OrderStatus.QUEUED);
+		this.isBuyQueued = buyOrder.holdsReservedCredit();
 	}
 
 	public long getTradedValue() {
 		return (long) price * quantity;
 	}
 
-	private void decreaseSellersCredit() {
-		sell.getBroker().decreaseCreditBy(getTradedValue());
+	// credit of a queued buy order is reserved at its own price, so trading below it gives back the difference;
+	// an order being updated has reserved for its forecast trades at their own prices, so it gets nothing back
+	public long getReturnedBuyCredit() {
+		if (isBuyQueued && buy.isQueued() && price < buy.getPrice()) {
+			return (long) (buy.getPrice() - price) * quantity;
+		}
+		return 0;
 	}
 
 	private void increaseSellersCredit() {
@@ -101,22 +90,10 @@ public class Trade {
 		buy.getBroker().decreaseCreditBy(getTradedValue());
 	}
 
-	private void increaseBuyersCredit() {
-		buy.getBroker().increaseCreditBy(getTradedValue());
-	}
-
 	private void increaseBuyersPosition() {
 		buy.getShareholder().incPosition(security, quantity);
 	}
 
-	private void decreaseBuyersPosition() {
-		buy.getShareholder().decPosition(security, quantity);
-	}
-
-	private void increaseSellersPosition() {
-		sell.getShareholder().incPosition(security, quantity);
-	}
-
 	private void decreaseSellersPosition() {
 		sell.getShareholder().decPosition(security, quantity);
 	}
@@ -124,9 +101,9 @@ public class Trade {
 	public void confirm() {
 		if (!isBuyQueued) {
 			decreaseBuyersCredit();
-		} else if (price < buy.getPrice()) {
-			long backCredit = (long) ((buy.getPrice() - this.price) * this.quantity);
-			buy.getBroker().increaseCreditBy(backCredit);
+		} else {
+			buy.getBroker().commitCredit(getTradedValue());
+			buy.getBroker().releaseCredit(getReturnedBuyCredit());
 		}
 
 		increaseSellersCredit();
@@ -135,32 +112,4 @@ public class Trade {
 		buy.decreaseQuantity(quantity);
 		sell.decreaseQuantity(quantity);
 	}
-
-	public void rollback() {
-		if (isBuyQueued) {
-            buyQueuedRollback();
-        }
-        else {
-            sellQueuedRollback();
-        }
-	}
-
-	private void sellQueuedRollback() {
-		increaseBuyersCredit();
-		decreaseSellersCredit();
-		decreaseBuyersPosition();
-		increaseSellersPosition();
-		sell.rollback(sellFirstVersion);
-	}
-
-	private void buyQueuedRollback() {
-		if (buy.getStatus() == OrderStatus.DONE) {
-            increaseBuyersCredit();
-        }
-        
-		decreaseSellersCredit();
-		decreaseBuyersPosition();
-		increaseSellersPosition();
-		buy.rollback(buyFirstVersion);
-	}
 }
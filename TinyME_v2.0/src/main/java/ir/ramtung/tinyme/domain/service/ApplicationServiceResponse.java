@@ -1,5 +1,6 @@
 package ir.ramtung.tinyme.domain.service;
 
+import ir.ramtung.tinyme.domain.entity.Security;
 import ir.ramtung.tinyme.domain.exception.InvalidRequestFieldAccess;
 import ir.ramtung.tinyme.messaging.event.Event;
 import ir.ramtung.tinyme.messaging.request.BaseOrderRq;
@@ -14,6 +15,7 @@ public class ApplicationServiceResponse {
 	private ApplicationServiceType type;
 	private List<Event> events;
 	private BaseRq req;
+	private Security security;
 
 	public enum ApplicationServiceType {
 		DELETE_ORDER,
@@ -24,12 +26,14 @@ public class ApplicationServiceResponse {
 		ADD_STOP_LIMIT_ORDER,
 		UPDATE_STOP_LIMIT_ORDER,
 		CHANGE_MATCHING_STATE,
+		MARKET_DEPTH,
 	}
 
-	public ApplicationServiceResponse(ApplicationServiceType type, List<Event> events, BaseRq req) {
+	public ApplicationServiceResponse(ApplicationServiceType type, List<Event> events, BaseRq req, Security security) {
 		this.type = type;
 		this.events = events;
 		this.req = req;
+		this.security = security;
 	}
 
 	public boolean isTypeDelete() {
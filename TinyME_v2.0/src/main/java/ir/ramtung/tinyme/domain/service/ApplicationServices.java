@@ -14,8 +14,10 @@ import ir.ramtung.tinyme.domain.exception.NotFoundException;
 import ir.ramtung.tinyme.domain.exception.UpdateMinimumExecutionQuantityException;
 import ir.ramtung.tinyme.domain.service.ApplicationServiceResponse.ApplicationServiceType;
 import ir.ramtung.tinyme.messaging.Message;
+import ir.ramtung.tinyme.messaging.PriceLevelDTO;
 import ir.ramtung.tinyme.messaging.TradeDTO;
 import ir.ramtung.tinyme.messaging.event.Event;
+import ir.ramtung.tinyme.messaging.event.MarketDepthEvent;
 import ir.ramtung.tinyme.messaging.event.OpeningPriceEvent;
 import ir.ramtung.tinyme.messaging.event.OrderAcceptedEvent;
 import ir.ramtung.tinyme.messaging.event.OrderActivatedEvent;
@@ -29,6 +31,7 @@ import ir.ramtung.tinyme.messaging.exception.InvalidRequestException;
 import ir.ramtung.tinyme.messaging.request.ChangeMatchingStateRq;
 import ir.ramtung.tinyme.messaging.request.DeleteOrderRq;
 import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
+import ir.ramtung.tinyme.messaging.request.MarketDepthRq;
 import ir.ramtung.tinyme.messaging.request.MatchingState;
 import ir.ramtung.tinyme.repository.BrokerRepository;
 import ir.ramtung.tinyme.repository.SecurityRepository;
@@ -44,9 +47,6 @@ public class ApplicationServices {
 	private SecurityRepository securityRepository;
 	private BrokerRepository brokerRepository;
 	private ShareholderRepository shareholderRepository;
-	private Security security;
-	private Broker broker;
-	private Shareholder shareholder;
 
 	public ApplicationServices(
 		SecurityRepository securityRepository,
@@ -58,18 +58,24 @@ public class ApplicationServices {
 		this.securityRepository = securityRepository;
 	}
 
-	private void setEntitiesByRq(EnterOrderRq req) {
-		this.security = securityRepository.findSecurityByIsin(req.getSecurityIsin());
-		this.broker = brokerRepository.findBrokerById(req.getBrokerId());
-		this.shareholder = shareholderRepository.findShareholderById(req.getShareholderId());
+	private RequestContext createContext(EnterOrderRq req) {
+		return new RequestContext(
+			securityRepository.findSecurityByIsin(req.getSecurityIsin()),
+			brokerRepository.findBrokerById(req.getBrokerId()),
+			shareholderRepository.findShareholderById(req.getShareholderId())
+		);
+	}
+
+	private RequestContext createContext(DeleteOrderRq req) {
+		return new RequestContext(securityRepository.findSecurityByIsin(req.getSecurityIsin()), null, null);
 	}
 
-	private void setEntitiesByRq(DeleteOrderRq req) {
-		this.security = securityRepository.findSecurityByIsin(req.getSecurityIsin());
+	private RequestContext createContext(ChangeMatchingStateRq req) {
+		return new RequestContext(securityRepository.findSecurityByIsin(req.getSecurityIsin()), null, null);
 	}
 
-	private void setEntitiesByRq(ChangeMatchingStateRq req) {
-		this.security = securityRepository.findSecurityByIsin(req.getSecurityIsin());
+	private RequestContext createContext(MarketDepthRq req) {
+		return new RequestContext(securityRepository.findSecurityByIsin(req.getSecurityIsin()), null, null);
 	}
 
 	private void validateDeleteOrderRq(DeleteOrderRq deleteOrderRq) {
@@ -118,10 +124,9 @@ public class ApplicationServices {
 		}
 	}
 
-	private void validateUpdateOrderRq(EnterOrderRq updateOrderRq) {
+	private void validateUpdateOrderRq(EnterOrderRq updateOrderRq, RequestContext context) {
 		try {
-			Security security = securityRepository.findSecurityByIsin(updateOrderRq.getSecurityIsin());
-			Order order = security.findByOrderId(updateOrderRq.getSide(), updateOrderRq.getOrderId());
+			Order order = context.getSecurity().findByOrderId(updateOrderRq.getSide(), updateOrderRq.getOrderId());
 			order.checkNewPeakSize(updateOrderRq.getPeakSize());
 			order.checkNewMinimumExecutionQuantity(updateOrderRq.getMinimumExecutionQuantity());
 			order.checkNewStopLimitPrice(updateOrderRq.getStopPrice());
@@ -146,7 +151,23 @@ public class ApplicationServices {
 		}
 	}
 
-	private List<Event> createEventsFormSecurityStats(List<SecurityStats> securityStats, long requestId) {
+	private void validateMarketDepthRq(MarketDepthRq req) {
+		List<String> errors = req.validateYourFields();
+
+		if (!securityRepository.isThereSecurityWithIsin(req.getSecurityIsin())) {
+			errors.add(Message.UNKNOWN_SECURITY_ISIN);
+		}
+
+		if (!errors.isEmpty()) {
+			throw new InvalidRequestException(errors);
+		}
+	}
+
+	private List<Event> createEventsFormSecurityStats(
+		List<SecurityStats> securityStats,
+		long requestId,
+		RequestContext context
+	) {
 		List<Event> events = new ArrayList<>();
 		for (SecurityStats stats : securityStats) {
 			if (stats instanceof SituationalStats situationalStats) {
@@ -154,9 +175,9 @@ public class ApplicationServices {
 			} else if (stats instanceof ExecuteStats executeStats) {
 				events.addAll(createEventsFromExecuteStats(executeStats, requestId));
 			} else if (stats instanceof StateStats stateStats) {
-				events.add(createSecurityStateChangedEvent(stateStats));
+				events.add(createSecurityStateChangedEvent(stateStats, context.getSecurity()));
 			} else if (stats instanceof AuctionStats auctionStats) {
-				events.add(createOpeningPriceEvent(auctionStats));
+				events.add(createOpeningPriceEvent(auctionStats, context.getSecurity()));
 			} else {
 				throw new UnknownError("Unknown SecurityStats");
 			}
@@ -164,7 +185,7 @@ public class ApplicationServices {
 		return events;
 	}
 
-	private Event createOpeningPriceEvent(AuctionStats auctionStats) {
+	private Event createOpeningPriceEvent(AuctionStats auctionStats, Security security) {
 		return new OpeningPriceEvent(
 			security.getIsin(),
 			auctionStats.getOpeningPrice(),
@@ -172,7 +193,7 @@ public class ApplicationServices {
 		);
 	}
 
-	private Event createSecurityStateChangedEvent(StateStats stateStats) {
+	private Event createSecurityStateChangedEvent(StateStats stateStats, Security security) {
 		MatchingState state = (stateStats.getTo() == SecurityState.AUCTION)
 			? MatchingState.AUCTION
 			: MatchingState.CONTINUOUS;
@@ -227,85 +248,169 @@ public class ApplicationServices {
 
 	public ApplicationServiceResponse deleteOrder(DeleteOrderRq req) {
 		validateDeleteOrderRq(req);
-		setEntitiesByRq(req);
-		SecurityResponse response = security.deleteOrder(req.getSide(), req.getOrderId());
-		List<Event> events = createEventsFormSecurityStats(response.getStats(), req.getRequestId());
+		RequestContext context = createContext(req);
+		SecurityResponse response = context.getSecurity().deleteOrder(req.getSide(), req.getOrderId());
+		List<Event> events = createEventsFormSecurityStats(response.getStats(), req.getRequestId(), context);
 
-		return new ApplicationServiceResponse(ApplicationServiceType.DELETE_ORDER, events, req);
+		return new ApplicationServiceResponse(ApplicationServiceType.DELETE_ORDER, events, req, context.getSecurity());
 	}
 
 	public ApplicationServiceResponse addLimitOrder(EnterOrderRq req) {
 		generalEnterOrderValidation(req);
-		setEntitiesByRq(req);
-		Order tempOrder = Order.createTempOrderByEnterRq(security, broker, shareholder, req);
-		SecurityResponse response = security.addNewOrder(tempOrder);
-		List<Event> events = createEventsFormSecurityStats(response.getStats(), req.getRequestId());
-
-		return new ApplicationServiceResponse(ApplicationServiceType.ADD_LIMIT_ORDER, events, req);
+		RequestContext context = createContext(req);
+		Order tempOrder = Order.createTempOrderByEnterRq(
+			context.getSecurity(),
+			context.getBroker(),
+			context.getShareholder(),
+			req
+		);
+		SecurityResponse response = context.getSecurity().addNewOrder(tempOrder);
+		List<Event> events = createEventsFormSecurityStats(response.getStats(), req.getRequestId(), context);
+
+		return new ApplicationServiceResponse(
+			ApplicationServiceType.ADD_LIMIT_ORDER,
+			events,
+			req,
+			context.getSecurity()
+		);
 	}
 
 	public ApplicationServiceResponse updateLimitOrder(EnterOrderRq req) {
 		generalEnterOrderValidation(req);
-		validateUpdateOrderRq(req);
-		setEntitiesByRq(req);
-		Order tempOrder = Order.createTempOrderByEnterRq(security, broker, shareholder, req);
-		SecurityResponse response = security.updateOrder(tempOrder);
-		List<Event> events = createEventsFormSecurityStats(response.getStats(), req.getRequestId());
-
-		return new ApplicationServiceResponse(ApplicationServiceType.UPDATE_LIMIT_ORDER, events, req);
+		RequestContext context = createContext(req);
+		validateUpdateOrderRq(req, context);
+		Order tempOrder = Order.createTempOrderByEnterRq(
+			context.getSecurity(),
+			context.getBroker(),
+			context.getShareholder(),
+			req
+		);
+		SecurityResponse response = context.getSecurity().updateOrder(tempOrder);
+		List<Event> events = createEventsFormSecurityStats(response.getStats(), req.getRequestId(), context);
+
+		return new ApplicationServiceResponse(
+			ApplicationServiceType.UPDATE_LIMIT_ORDER,
+			events,
+			req,
+			context.getSecurity()
+		);
 	}
 
 	public ApplicationServiceResponse addIcebergOrder(EnterOrderRq req) {
 		generalEnterOrderValidation(req);
-		setEntitiesByRq(req);
-		IcebergOrder tempOrder = IcebergOrder.createTempOrderByEnterRq(security, broker, shareholder, req);
-		SecurityResponse response = security.addNewOrder(tempOrder);
-		List<Event> events = createEventsFormSecurityStats(response.getStats(), req.getRequestId());
-
-		return new ApplicationServiceResponse(ApplicationServiceType.ADD_ICEBERG_ORDER, events, req);
+		RequestContext context = createContext(req);
+		IcebergOrder tempOrder = IcebergOrder.createTempOrderByEnterRq(
+			context.getSecurity(),
+			context.getBroker(),
+			context.getShareholder(),
+			req
+		);
+		SecurityResponse response = context.getSecurity().addNewOrder(tempOrder);
+		List<Event> events = createEventsFormSecurityStats(response.getStats(), req.getRequestId(), context);
+
+		return new ApplicationServiceResponse(
+			ApplicationServiceType.ADD_ICEBERG_ORDER,
+			events,
+			req,
+			context.getSecurity()
+		);
 	}
 
 	public ApplicationServiceResponse updateIcebergOrder(EnterOrderRq req) {
 		generalEnterOrderValidation(req);
-		validateUpdateOrderRq(req);
-		setEntitiesByRq(req);
-		IcebergOrder tempOrder = IcebergOrder.createTempOrderByEnterRq(security, broker, shareholder, req);
-		SecurityResponse response = security.updateOrder(tempOrder);
-		List<Event> events = createEventsFormSecurityStats(response.getStats(), req.getRequestId());
-
-		return new ApplicationServiceResponse(ApplicationServiceType.UPDATE_ICEBERG_ORDER, events, req);
+		RequestContext context = createContext(req);
+		validateUpdateOrderRq(req, context);
+		IcebergOrder tempOrder = IcebergOrder.createTempOrderByEnterRq(
+			context.getSecurity(),
+			context.getBroker(),
+			context.getShareholder(),
+			req
+		);
+		SecurityResponse response = context.getSecurity().updateOrder(tempOrder);
+		List<Event> events = createEventsFormSecurityStats(response.getStats(), req.getRequestId(), context);
+
+		return new ApplicationServiceResponse(
+			ApplicationServiceType.UPDATE_ICEBERG_ORDER,
+			events,
+			req,
+			context.getSecurity()
+		);
 	}
 
 	public ApplicationServiceResponse addStopLimitOrder(EnterOrderRq req) {
 		generalEnterOrderValidation(req);
-		setEntitiesByRq(req);
-		StopLimitOrder tempOrder = StopLimitOrder.createTempOrderByEnterRq(security, broker, shareholder, req);
-		SecurityResponse response = security.addNewOrder(tempOrder);
-		List<Event> events = createEventsFormSecurityStats(response.getStats(), req.getRequestId());
-
-		return new ApplicationServiceResponse(ApplicationServiceType.ADD_STOP_LIMIT_ORDER, events, req);
+		RequestContext context = createContext(req);
+		StopLimitOrder tempOrder = StopLimitOrder.createTempOrderByEnterRq(
+			context.getSecurity(),
+			context.getBroker(),
+			context.getShareholder(),
+			req
+		);
+		SecurityResponse response = context.getSecurity().addNewOrder(tempOrder);
+		List<Event> events = createEventsFormSecurityStats(response.getStats(), req.getRequestId(), context);
+
+		return new ApplicationServiceResponse(
+			ApplicationServiceType.ADD_STOP_LIMIT_ORDER,
+			events,
+			req,
+			context.getSecurity()
+		);
 	}
 
 	public ApplicationServiceResponse updateStopLimitOrder(EnterOrderRq req) {
 		generalEnterOrderValidation(req);
-		validateUpdateOrderRq(req);
-		setEntitiesByRq(req);
-		StopLimitOrder tempOrder = StopLimitOrder.createTempOrderByEnterRq(security, broker, shareholder, req);
-		SecurityResponse response = security.updateOrder(tempOrder);
-		List<Event> events = createEventsFormSecurityStats(response.getStats(), req.getRequestId());
-
-		return new ApplicationServiceResponse(ApplicationServiceType.UPDATE_STOP_LIMIT_ORDER, events, req);
+		RequestContext context = createContext(req);
+		validateUpdateOrderRq(req, context);
+		StopLimitOrder tempOrder = StopLimitOrder.createTempOrderByEnterRq(
+			context.getSecurity(),
+			context.getBroker(),
+			context.getShareholder(),
+			req
+		);
+		SecurityResponse response = context.getSecurity().updateOrder(tempOrder);
+		List<Event> events = createEventsFormSecurityStats(response.getStats(), req.getRequestId(), context);
+
+		return new ApplicationServiceResponse(
+			ApplicationServiceType.UPDATE_STOP_LIMIT_ORDER,
+			events,
+			req,
+			context.getSecurity()
+		);
 	}
 
 	public ApplicationServiceResponse changeMatchingState(ChangeMatchingStateRq req) {
 		validateChangeMatchingState(req);
-		setEntitiesByRq(req);
+		RequestContext context = createContext(req);
 		SecurityState targetSecurityState = (req.getTargetState() == MatchingState.AUCTION)
 			? SecurityState.AUCTION
 			: SecurityState.CONTINUOUS;
-		SecurityResponse response = security.changeMatchingState(targetSecurityState);
-		List<Event> events = createEventsFormSecurityStats(response.getStats(), 0);
+		SecurityResponse response = context.getSecurity().changeMatchingState(targetSecurityState);
+		List<Event> events = createEventsFormSecurityStats(response.getStats(), 0, context);
+
+		return new ApplicationServiceResponse(
+			ApplicationServiceType.CHANGE_MATCHING_STATE,
+			events,
+			req,
+			context.getSecurity()
+		);
+	}
+
+	public ApplicationServiceResponse getMarketDepth(MarketDepthRq req) {
+		validateMarketDepthRq(req);
+		RequestContext context = createContext(req);
+		OrderBook orderBook = context.getSecurity().getOrderBook();
+		Event event = new MarketDepthEvent(
+			req.getRequestId(),
+			req.getSecurityIsin(),
+			orderBook.getTopLevels(Side.BUY, req.getDepth()).stream().map(PriceLevelDTO::new).toList(),
+			orderBook.getTopLevels(Side.SELL, req.getDepth()).stream().map(PriceLevelDTO::new).toList()
+		);
 
-		return new ApplicationServiceResponse(ApplicationServiceType.CHANGE_MATCHING_STATE, events, req);
+		return new ApplicationServiceResponse(
+			ApplicationServiceType.MARKET_DEPTH,
+			List.of(event),
+			req,
+			context.getSecurity()
+		);
 	}
 }
@@ -1,6 +1,7 @@
 package ir.ramtung.tinyme.domain.service;
 
 import ir.ramtung.tinyme.domain.entity.*;
+import ir.ramtung.tinyme.domain.entity.stats.AuctionStats;
 import ir.ramtung.tinyme.domain.service.controls.AuctionMatchingControl;
 import ir.ramtung.tinyme.domain.service.controls.ContinuousMatchingControl;
 import ir.ramtung.tinyme.domain.service.controls.ControlResult;
@@ -15,6 +16,7 @@ public class Matcher {
 
 	private MatchingControl continuousMatchingControl;
 	private MatchingControl auctionMatchingControl;
+	private OpeningPriceCalculator openingPriceCalculator = new OpeningPriceCalculator();
 
 	public Matcher(ContinuousMatchingControl continuousMatchingControl, AuctionMatchingControl auctionMatchingControl) {
 		this.continuousMatchingControl = continuousMatchingControl;
@@ -25,50 +27,12 @@ public class Matcher {
 		return orderBook.hasOrderOfType(Side.BUY) && orderBook.hasOrderOfType(Side.SELL);
 	}
 
-	public int calcOpeningAuctionPrice(OrderBook orderBook, int lastTradePrice) {
-		if (!hasOrderForAuction(orderBook)) {
-			return lastTradePrice;
-		}
-
-		int minPrice = orderBook.getLowestPriorityActiveOrder(Side.BUY).getPrice();
-		int maxPrice = orderBook.getLowestPriorityActiveOrder(Side.SELL).getPrice();
-
-		int maxTradableQuantity = 0;
-		int openingPrice = lastTradePrice;
-
-		for (int price = minPrice; price <= maxPrice; price++) {
-			int currentTradableQuantity = calcTradableQuantity(orderBook, price);
-			if (
-				shouldUpdateOpeningAuctionPrice(
-					openingPrice,
-					price,
-					lastTradePrice,
-					maxTradableQuantity,
-					currentTradableQuantity
-				)
-			) {
-				openingPrice = price;
-				maxTradableQuantity = currentTradableQuantity;
-			}
-		}
-
-		return openingPrice;
+	public AuctionStats calcAuctionStats(OrderBook orderBook, int lastTradePrice) {
+		return openingPriceCalculator.calculate(orderBook, lastTradePrice);
 	}
 
-	private boolean shouldUpdateOpeningAuctionPrice(
-		int openingPrice,
-		int newOpeningPrice,
-		int lastTradePrice,
-		int openingTradableQuantity,
-		int newOpeningTradableQuantity
-	) {
-		return (
-			newOpeningTradableQuantity > openingTradableQuantity ||
-			(
-				newOpeningTradableQuantity == openingTradableQuantity &&
-				Math.abs(newOpeningPrice - lastTradePrice) < Math.abs(openingPrice - lastTradePrice)
-			)
-		);
+	public int calcOpeningAuctionPrice(OrderBook orderBook, int lastTradePrice) {
+		return calcAuctionStats(orderBook, lastTradePrice).getOpeningPrice();
 	}
 
 	public int calcTradableQuantity(OrderBook orderBook, int openingPrice) {
@@ -81,23 +45,30 @@ public class Matcher {
 		return queue.stream().filter(order -> order.canTradeWithPrice(price)).mapToInt(Order::getTotalQuantity).sum();
 	}
 
-	private void controllerMatch(Trade trade, OrderBook orderBook, MatchingControl control, List<Trade> trades) {
-		control.actionAtMatch(trade, orderBook);
+	private void controllerMatch(
+		Trade trade,
+		OrderBook orderBook,
+		MatchingControl control,
+		List<Trade> trades,
+		MatchJournal journal
+	) {
+		control.actionAtMatch(trade, orderBook, journal);
 		trades.add(trade);
 	}
 
 	private MatchResult controllerFailedBeforeMatch(
 		MatchingControl control,
-		List<Trade> trades,
+		MatchJournal journal,
 		OrderBook orderBook,
 		ControlResult controlResult
 	) {
-		control.actionAtFailedBeforeMatch(trades, orderBook);
+		control.actionAtFailedBeforeMatch(journal, orderBook);
 		return MatchResult.createFromControlResult(controlResult);
 	}
 
 	public MatchResult continuousMatch(Order order, OrderBook orderBook) {
 		List<Trade> trades = new LinkedList<>();
+		MatchJournal journal = new MatchJournal();
 		ControlResult controlResult;
 		Order matchingOrder;
 
@@ -106,13 +77,13 @@ public class Matcher {
 			controlResult = continuousMatchingControl.checkBeforeMatch(trade);
 			
 			if (controlResult == ControlResult.OK) {
-				controllerMatch(trade, orderBook, continuousMatchingControl, trades);
+				controllerMatch(trade, orderBook, continuousMatchingControl, trades, journal);
 			} else {
-				return controllerFailedBeforeMatch(continuousMatchingControl, trades, orderBook, controlResult);
+				return controllerFailedBeforeMatch(continuousMatchingControl, journal, orderBook, controlResult);
 			}
 		}
 
-		controlResult = endMatching(continuousMatchingControl, order, orderBook, trades);
+		controlResult = endMatching(continuousMatchingControl, order, orderBook, trades, journal);
 		if (controlResult != ControlResult.OK) {
 			return MatchResult.createFromControlResult(controlResult);
 		}
@@ -123,18 +94,19 @@ public class Matcher {
 	private MatchResult auctionMatch(OrderBook orderBook, int openingPrice) {
 		ControlResult controlResult;
 		List<Trade> trades = new ArrayList<>();
+		MatchJournal journal = new MatchJournal();
 		Trade currentTrade;
 
 		while ((currentTrade = createTradeForAuctionMatching(orderBook, openingPrice)) != null) {
 			controlResult = auctionMatchingControl.checkBeforeMatch(currentTrade);
 			if (controlResult == ControlResult.OK) {
-				controllerMatch(currentTrade, orderBook, auctionMatchingControl, trades);
+				controllerMatch(currentTrade, orderBook, auctionMatchingControl, trades, journal);
 			} else {
-				return controllerFailedBeforeMatch(auctionMatchingControl, trades, orderBook, controlResult);
+				return controllerFailedBeforeMatch(auctionMatchingControl, journal, orderBook, controlResult);
 			}
 		}
 
-		controlResult = endMatching(auctionMatchingControl, null, orderBook, trades);
+		controlResult = endMatching(auctionMatchingControl, null, orderBook, trades, journal);
 		if (controlResult != ControlResult.OK) {
 			return MatchResult.createFromControlResult(controlResult);
 		}
@@ -146,13 +118,14 @@ public class Matcher {
 		MatchingControl control,
 		Order targetOrder,
 		OrderBook orderBook,
-		List<Trade> trades
+		List<Trade> trades,
+		MatchJournal journal
 	) {
 		ControlResult result = control.checkAfterMatching(targetOrder, trades);
 		if (result == ControlResult.OK) {
 			control.actionAfterMatching(targetOrder, orderBook);
 		} else {
-			control.actionAfterFailedMatching(trades, orderBook);
+			control.actionAfterFailedMatching(journal, orderBook);
 		}
 
 		return result;
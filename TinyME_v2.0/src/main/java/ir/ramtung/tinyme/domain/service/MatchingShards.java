@@ -0,0 +1,142 @@
+package ir.ramtung.tinyme.domain.service;
+
+import ir.ramtung.tinyme.messaging.request.BaseRq;
+import ir.ramtung.tinyme.messaging.request.MarketDepthRq;
+import ir.ramtung.tinyme.repository.RequestJournal;
+import jakarta.annotation.PreDestroy;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// each security is matched by the single thread of the shard its isin hashes to, so requests of one
+// security are handled in arrival order while different securities are matched in parallel
+@Component
+public class MatchingShards {
+
+	private final Logger log = Logger.getLogger(this.getClass().getName());
+	private final ExecutorService[] executors;
+	private final OrderHandler orderHandler;
+	private final RequestJournal requestJournal;
+	private final Object journalLock = new Object();
+	private final ReadWriteLock pauseLock = new ReentrantReadWriteLock();
+
+	public MatchingShards(int shardCount, OrderHandler orderHandler) {
+		this(shardCount, orderHandler, null);
+	}
+
+	@Autowired
+	public MatchingShards(
+		@Value("${matchingShards:0}") int shardCount,
+		OrderHandler orderHandler,
+		RequestJournal requestJournal
+	) {
+		boolean journaling = requestJournal != null && requestJournal.isEnabled();
+		// securities on different shards share the credit of their brokers, so which of two requests got the credit
+		// is only settled while they run, and a journal written in dispatch order could not replay it
+		if (journaling && shardCount > 0) {
+			throw new IllegalStateException("journalDirectory cannot be set together with matchingShards");
+		}
+		this.orderHandler = orderHandler;
+		this.requestJournal = journaling ? requestJournal : null;
+		executors = new ExecutorService[shardCount];
+		for (int shard = 0; shard < shardCount; shard++) {
+			String threadName = "matching-shard-" + shard;
+			executors[shard] = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, threadName));
+		}
+	}
+
+	public boolean isEnabled() {
+		return executors.length > 0;
+	}
+
+	public int shardOf(String securityIsin) {
+		return Math.floorMod(Objects.hashCode(securityIsin), executors.length);
+	}
+
+	// runs the request on its shard, or right away on the calling thread when there are no shards; a journal is only
+	// kept without shards, and the request is journaled before it is validated and handled under one lock, so the
+	// journal holds every request in the order it was handled and replay rejects again the ones that were rejected;
+	// queries change nothing, so they are not journaled
+	public void dispatch(BaseRq baseRq) {
+		pauseLock.readLock().lock();
+		try {
+			if (requestJournal == null || baseRq instanceof MarketDepthRq) {
+				route(baseRq);
+				return;
+			}
+
+			synchronized (journalLock) {
+				requestJournal.append(baseRq);
+				route(baseRq);
+			}
+		} finally {
+			pauseLock.readLock().unlock();
+		}
+	}
+
+	// holds off new requests and waits for every shard to finish the ones it has, then runs the action at this
+	// point where no security is being matched and nothing is journaled
+	public <T> T callWhilePaused(Supplier<T> action) throws InterruptedException {
+		pauseLock.writeLock().lock();
+		try {
+			CountDownLatch paused = new CountDownLatch(executors.length);
+			CountDownLatch resumed = new CountDownLatch(1);
+			for (ExecutorService executor : executors) {
+				executor.execute(() -> {
+					paused.countDown();
+					try {
+						resumed.await();
+					} catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+					}
+				});
+			}
+			try {
+				paused.await();
+				return action.get();
+			} finally {
+				resumed.countDown();
+			}
+		} finally {
+			pauseLock.writeLock().unlock();
+		}
+	}
+
+	private void route(BaseRq baseRq) {
+		if (isEnabled()) {
+			handleRq(baseRq);
+		} else {
+			orderHandler.handleRq(baseRq);
+		}
+	}
+
+	public void handleRq(BaseRq baseRq) {
+		executors[shardOf(baseRq.getSecurityIsin())].execute(() -> {
+			try {
+				orderHandler.handleRq(baseRq);
+			} catch (RuntimeException ex) {
+				log.log(Level.SEVERE, "Failed to handle " + baseRq, ex);
+			}
+		});
+	}
+
+	@PreDestroy
+	public void shutdown() throws InterruptedException {
+		for (ExecutorService executor : executors) {
+			executor.shutdown();
+		}
+		for (ExecutorService executor : executors) {
+			executor.awaitTermination(1, TimeUnit.MINUTES);
+		}
+	}
+}
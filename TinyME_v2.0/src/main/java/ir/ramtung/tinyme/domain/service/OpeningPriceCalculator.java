@@ -0,0 +1,30 @@
+package ir.ramtung.tinyme.domain.service;
+
+import ir.ramtung.tinyme.domain.entity.AuctionCurves;
+import ir.ramtung.tinyme.domain.entity.OrderBook;
+import ir.ramtung.tinyme.domain.entity.Side;
+import ir.ramtung.tinyme.domain.entity.stats.AuctionStats;
+
+public class OpeningPriceCalculator {
+
+	public AuctionStats calculate(OrderBook orderBook, int lastTradePrice) {
+		if (!orderBook.hasOrderOfType(Side.BUY) || !orderBook.hasOrderOfType(Side.SELL)) {
+			return AuctionStats.createAuctionStats(lastTradePrice, 0);
+		}
+
+		// only prices from the lowest buy up to the highest sell are candidates
+		int lowestBuyPrice = orderBook.getLowestPriorityActiveOrder(Side.BUY).getPrice();
+		int highestSellPrice = orderBook.getLowestPriorityActiveOrder(Side.SELL).getPrice();
+		AuctionCurves curves = orderBook.getAuctionCurves();
+		long tradableQuantity = curves.getMaxTradableQuantity();
+		if (lowestBuyPrice > highestSellPrice || tradableQuantity == 0) {
+			return AuctionStats.createAuctionStats(lastTradePrice, 0);
+		}
+
+		// the prices trading the most form one range, in which the price nearest to the last trade wins
+		int minPrice = Math.max(curves.getLowestPriceWithSupply(tradableQuantity), lowestBuyPrice);
+		int maxPrice = Math.min(curves.getHighestPriceWithDemand(tradableQuantity), highestSellPrice);
+		int openingPrice = Math.max(minPrice, Math.min(lastTradePrice, maxPrice));
+		return AuctionStats.createAuctionStats(openingPrice, (int) tradableQuantity);
+	}
+}
@@ -1,16 +1,19 @@
 package ir.ramtung.tinyme.domain.service;
 
 import ir.ramtung.tinyme.messaging.EventPublisher;
+import ir.ramtung.tinyme.messaging.MarketDataPublisher;
 import ir.ramtung.tinyme.messaging.Message;
 import ir.ramtung.tinyme.messaging.event.*;
 import ir.ramtung.tinyme.messaging.exception.InvalidRequestException;
 import ir.ramtung.tinyme.messaging.request.BaseOrderRq;
 import ir.ramtung.tinyme.messaging.request.DeleteOrderRq;
 import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
+import ir.ramtung.tinyme.messaging.request.MarketDepthRq;
 import ir.ramtung.tinyme.messaging.request.OrderEntryType;
 import ir.ramtung.tinyme.messaging.request.BaseRq;
 import ir.ramtung.tinyme.messaging.request.ChangeMatchingStateRq;
 import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -18,21 +21,37 @@ public class OrderHandler {
 
 	EventPublisher eventPublisher;
 	ApplicationServices services;
+	MarketDataPublisher marketDataPublisher;
 
 	public OrderHandler(ApplicationServices services, EventPublisher eventPublisher) {
+		this(services, eventPublisher, new MarketDataPublisher(null));
+	}
+
+	@Autowired
+	public OrderHandler(
+		ApplicationServices services,
+		EventPublisher eventPublisher,
+		MarketDataPublisher marketDataPublisher
+	) {
 		this.eventPublisher = eventPublisher;
 		this.services = services;
+		this.marketDataPublisher = marketDataPublisher;
 	}
 
 	public void handleRq(BaseRq baseRq) {
+		// intake stops with the publisher, before a request changes what could no longer be answered
+		eventPublisher.checkSending();
 		try {
 			ApplicationServiceResponse response = callService(baseRq);
 			publishApplicationServiceResponse(response);
+			marketDataPublisher.publish(response.getSecurity(), response.getEvents());
 		} catch (InvalidRequestException ex) {
 			if (baseRq instanceof BaseOrderRq baseOrderRq) {
 				eventPublisher.publish(
 						new OrderRejectedEvent(baseOrderRq.getRequestId(), baseOrderRq.getOrderId(), ex.getReasons())
 				);
+			} else if (baseRq instanceof MarketDepthRq marketDepthRq) {
+				eventPublisher.publish(new MarketDepthRejectedEvent(marketDepthRq.getRequestId(), ex.getReasons()));
 			} else {
 				throw ex;
 			}
@@ -46,6 +65,9 @@ public class OrderHandler {
 		if (req instanceof DeleteOrderRq deleteReq) {
 			return callDeleteServices(deleteReq);
 		}
+		if (req instanceof MarketDepthRq marketDepthRq) {
+			return callMarketDepthServices(marketDepthRq);
+		}
 
 		if (req instanceof EnterOrderRq enterReq) {
 			OrderEntryType type = enterReq.getRequestType();
@@ -66,6 +88,10 @@ public class OrderHandler {
 		return services.changeMatchingState(req);
 	}
 
+	private ApplicationServiceResponse callMarketDepthServices(MarketDepthRq req) {
+		return services.getMarketDepth(req);
+	}
+
 	private ApplicationServiceResponse callAddServices(EnterOrderRq req) {
 		if (req.getStopPrice() != 0) {
 			return services.addStopLimitOrder(req);
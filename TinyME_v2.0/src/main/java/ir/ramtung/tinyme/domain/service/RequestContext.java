@@ -0,0 +1,17 @@
+package ir.ramtung.tinyme.domain.service;
+
+import ir.ramtung.tinyme.domain.entity.Broker;
+import ir.ramtung.tinyme.domain.entity.Security;
+import ir.ramtung.tinyme.domain.entity.Shareholder;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// the entities a request refers to, resolved once and handed along instead of kept in the services
+@Getter
+@AllArgsConstructor
+public class RequestContext {
+
+	private final Security security;
+	private final Broker broker;
+	private final Shareholder shareholder;
+}
@@ -1,5 +1,7 @@
 package ir.ramtung.tinyme.domain.service.controls;
 
+import ir.ramtung.tinyme.domain.entity.MatchForecast;
+import ir.ramtung.tinyme.domain.entity.MatchJournal;
 import ir.ramtung.tinyme.domain.entity.Order;
 import ir.ramtung.tinyme.domain.entity.OrderBook;
 import ir.ramtung.tinyme.domain.entity.Trade;
@@ -19,17 +21,41 @@ public class ContinuousMatchingControl extends MatchingControl {
 
 	@Override
 	public ControlResult checkBeforeMatching(Order targetOrder, OrderBook orderBook) {
-		return positionControl.checkPositionForOrder(targetOrder, orderBook);
+		ControlResult controlResult = positionControl.checkPositionForOrder(targetOrder, orderBook);
+		if (controlResult != ControlResult.OK) {
+			return controlResult;
+		}
+
+		return checkMatchForecast(targetOrder, orderBook.forecastMatch(targetOrder));
+	}
+
+	// rejects before any trade only what matching is certain to reject, with the same result
+	private ControlResult checkMatchForecast(Order targetOrder, MatchForecast forecast) {
+		if (!creditControl.isCreditForecastable(targetOrder, forecast)) {
+			return ControlResult.OK;
+		}
+
+		ControlResult controlResult = creditControl.checkCreditForTrades(targetOrder, forecast);
+		if (controlResult != ControlResult.OK) {
+			return controlResult;
+		}
+
+		controlResult = quantityControl.checkMinimumExecutionQuantity(targetOrder, forecast);
+		if (controlResult != ControlResult.OK) {
+			return controlResult;
+		}
+
+		return creditControl.checkCreditForBeingQueued(targetOrder, forecast);
 	}
 
 	@Override
 	public ControlResult checkBeforeMatch(Trade trade) {
-		return creditControl.checkCreditForTrade(trade);
+		return creditControl.reserveCreditForTrade(trade);
 	}
 
 	@Override
-	public void actionAtFailedBeforeMatch(List<Trade> trades, OrderBook orderBook) {
-		rollbackTrades(trades, orderBook);
+	public void actionAtFailedBeforeMatch(MatchJournal journal, OrderBook orderBook) {
+		journal.rollback(orderBook);
 	}
 
 	@Override
@@ -39,25 +65,16 @@ public class ContinuousMatchingControl extends MatchingControl {
 			return controlResult;
 		}
 
-		return creditControl.checkCreditForBeingQueued(targetOrder);
+		return creditControl.reserveCreditForBeingQueued(targetOrder);
 	}
 
 	@Override
 	public void actionAfterMatching(Order targetOrder, OrderBook orderBook) {
-		creditControl.updateCreditForBeingQueued(targetOrder);
 		quantityControl.enqueueOrderToOrderBook(targetOrder, orderBook);
 	}
 
 	@Override
-	public void actionAfterFailedMatching(List<Trade> trades, OrderBook orderBook) {
-		rollbackTrades(trades, orderBook);
-	}
-
-	private void rollbackTrades(List<Trade> trades, OrderBook orderBook) {
-		for (Trade trade : trades.reversed()) {
-			quantityControl.updateQuantitiesAtRollbackTrade(trade, orderBook);
-			creditControl.updateCreditsAtRollbackTrade(trade);
-			positionControl.updatePositionsAtRollbackTrade(trade);
-		}
+	public void actionAfterFailedMatching(MatchJournal journal, OrderBook orderBook) {
+		journal.rollback(orderBook);
 	}
 }
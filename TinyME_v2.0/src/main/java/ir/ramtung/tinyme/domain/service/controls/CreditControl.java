@@ -1,6 +1,7 @@
 package ir.ramtung.tinyme.domain.service.controls;
 
 import ir.ramtung.tinyme.domain.entity.Broker;
+import ir.ramtung.tinyme.domain.entity.MatchForecast;
 import ir.ramtung.tinyme.domain.entity.Order;
 import ir.ramtung.tinyme.domain.entity.Trade;
 import org.springframework.stereotype.Service;
@@ -8,7 +9,7 @@ import org.springframework.stereotype.Service;
 @Service
 public class CreditControl {
 
-	public ControlResult checkCreditForTrade(Trade trade) {
+	public ControlResult reserveCreditForTrade(Trade trade) {
 		if (trade.isBuyQueued()) {
 			return ControlResult.OK;
 		}
@@ -17,43 +18,77 @@ public class CreditControl {
 		long value = trade.getTradedValue();
 		Broker broker = targetOrder.getBroker();
 
-		if (broker.hasEnoughCredit(value)) {
+		if (broker.reserveCredit(value)) {
 			return ControlResult.OK;
 		} else {
 			return ControlResult.NOT_ENOUGH_CREDIT;
 		}
 	}
 
-	public ControlResult checkCreditForBeingQueued(Order order) {
-		if (order.isSell()) {
+	public ControlResult reserveCreditForBeingQueued(Order order) {
+		if (order.isSell() || order.holdsReservedCredit()) {
 			return ControlResult.OK;
 		}
 
 		long value = order.getValue();
 		Broker broker = order.getBroker();
 
-		if (broker.hasEnoughCredit(value)) {
+		if (broker.reserveCredit(value)) {
+			return ControlResult.OK;
+		} else {
+			return ControlResult.NOT_ENOUGH_CREDIT;
+		}
+	}
+
+	public boolean isCreditForecastable(Order order, MatchForecast forecast) {
+		return order.isSell() || !forecast.isTradingWithOwnBroker();
+	}
+
+	public ControlResult checkCreditForTrades(Order order, MatchForecast forecast) {
+		if (order.isSell() || order.holdsReservedCredit()) {
+			return ControlResult.OK;
+		}
+
+		if (order.getBroker().hasEnoughCredit(forecast.getValue())) {
 			return ControlResult.OK;
 		} else {
 			return ControlResult.NOT_ENOUGH_CREDIT;
 		}
 	}
 
+	public ControlResult checkCreditForBeingQueued(Order order, MatchForecast forecast) {
+		if (order.isSell() || order.holdsReservedCredit()) {
+			return ControlResult.OK;
+		}
+
+		if (order.getBroker().hasEnoughCredit(getForecastCredit(order, forecast))) {
+			return ControlResult.OK;
+		} else {
+			return ControlResult.NOT_ENOUGH_CREDIT;
+		}
+	}
+
+	// what an order spends on its forecast trades and reserves for the quantity left to queue
+	public long getForecastCredit(Order order, MatchForecast forecast) {
+		return forecast.getValue() + (long) order.getPrice() * (order.getQuantity() - forecast.getQuantity());
+	}
+
 	public void updateCreditsAtTrade(Trade trade) {
 		updateBuyerCreditAtTrade(trade);
 		updateSellerCreditAtTrade(trade);
 	}
 
-	public void updateCreditsAtRollbackTrade(Trade trade) {
-		updateBuyerCreditAtRollbackTrade(trade);
-		updateSellerCreditAtRollbackTrade(trade);
-	}
+	// moves the reservation of an order being updated from one value to another in place, so the credit it holds
+	// is never released for other shards to take while the update can still be rejected
+	public ControlResult adjustCreditForBeingQueued(Order order, long fromValue, long toValue) {
+		if (order.isSell()) {
+			return ControlResult.OK;
+		}
 
-	public void updateCreditForBeingQueued(Order targetOrder) {
-		if (targetOrder.isBuy()) {
-			Broker buyerBroker = targetOrder.getBroker();
-			long remainderValue = targetOrder.getValue();
-			buyerBroker.decreaseCreditBy(remainderValue);
+		if (order.getBroker().adjustReservedCredit(fromValue, toValue)) {
+			return ControlResult.OK;
+		} else {
+			return ControlResult.NOT_ENOUGH_CREDIT;
 		}
 	}
 
@@ -61,23 +96,16 @@ public class CreditControl {
 		if (order.isBuy()) {
 			Broker buyerBroker = order.getBroker();
 			long orderValue = order.getValue();
-			buyerBroker.increaseCreditBy(orderValue);
+			buyerBroker.releaseCredit(orderValue);
 		}
 	}
 
 	private void updateBuyerCreditAtTrade(Trade trade) {
-		Order buyOrder = trade.getBuy();
-		Broker buyerBroker = buyOrder.getBroker();
+		Broker buyerBroker = trade.getBuy().getBroker();
 		long tradeValue = trade.getTradedValue();
 
-		if (!buyOrder.isQueued()) {
-			buyerBroker.decreaseCreditBy(tradeValue);
-		} else {
-			if (trade.getPrice() < buyOrder.getPrice()) {
-				long backCredit = (long) ((buyOrder.getPrice() - trade.getPrice()) * trade.getQuantity());
-				buyOrder.getBroker().increaseCreditBy(backCredit);
-			}
-		}
+		buyerBroker.commitCredit(tradeValue);
+		buyerBroker.releaseCredit(trade.getReturnedBuyCredit());
 	}
 
 	private void updateSellerCreditAtTrade(Trade trade) {
@@ -87,22 +115,4 @@ public class CreditControl {
 
 		sellerBroker.increaseCreditBy(tradeValue);
 	}
-
-	private void updateBuyerCreditAtRollbackTrade(Trade trade) {
-		Order buyOrder = trade.getBuy();
-		Broker buyerBroker = buyOrder.getBroker();
-		long tradeValue = trade.getTradedValue();
-
-		if (!buyOrder.isQueued()) {
-			buyerBroker.increaseCreditBy(tradeValue);
-		}
-	}
-
-	private void updateSellerCreditAtRollbackTrade(Trade trade) {
-		Order sellOrder = trade.getSell();
-		Broker sellerBroker = sellOrder.getBroker();
-		long tradeValue = trade.getTradedValue();
-
-		sellerBroker.decreaseCreditBy(tradeValue);
-	}
 }
@@ -1,5 +1,6 @@
 package ir.ramtung.tinyme.domain.service.controls;
 
+import ir.ramtung.tinyme.domain.entity.MatchJournal;
 import ir.ramtung.tinyme.domain.entity.Order;
 import ir.ramtung.tinyme.domain.entity.OrderBook;
 import ir.ramtung.tinyme.domain.entity.Trade;
@@ -33,13 +34,14 @@ public abstract class MatchingControl {
 		return ControlResult.OK;
 	}
 
-	public void actionAtMatch(Trade trade, OrderBook orderBook) {
+	public void actionAtMatch(Trade trade, OrderBook orderBook, MatchJournal journal) {
+		journal.recordTrade(trade);
 		creditControl.updateCreditsAtTrade(trade);
 		quantityControl.updateQuantitiesAtTrade(trade, orderBook);
 		positionControl.updatePositionsAtTrade(trade);
 	}
 
-	public void actionAtFailedBeforeMatch(List<Trade> trades, OrderBook orderBook) {}
+	public void actionAtFailedBeforeMatch(MatchJournal journal, OrderBook orderBook) {}
 
 	public ControlResult checkAfterMatching(Order targetOrder, List<Trade> trades) {
 		return ControlResult.OK;
@@ -47,5 +49,5 @@ public abstract class MatchingControl {
 
 	public void actionAfterMatching(Order targetOrder, OrderBook orderBook) {}
 
-	public void actionAfterFailedMatching(List<Trade> trades, OrderBook orerrBook) {}
+	public void actionAfterFailedMatching(MatchJournal journal, OrderBook orerrBook) {}
 }
@@ -33,11 +33,6 @@ public class PositionControl {
 		updateSellerPositionAtTrade(trade);
 	}
 
-	public void updatePositionsAtRollbackTrade(Trade trade) {
-		updateBuyerPositionAtRollbackTrade(trade);
-		updateSellerPositionAtRollbackTrade(trade);
-	}
-
 	private void updateBuyerPositionAtTrade(Trade trade) {
 		Order buyOrder = trade.getBuy();
 		Shareholder buyerShareholder = buyOrder.getShareholder();
@@ -55,22 +50,4 @@ public class PositionControl {
 
 		sellerShareholder.decPosition(security, tradeQuantity);
 	}
-
-	private void updateBuyerPositionAtRollbackTrade(Trade trade) {
-		Order buyOrder = trade.getBuy();
-		Shareholder buyerShareholder = buyOrder.getShareholder();
-		Security security = buyOrder.getSecurity();
-		int tradeQuantity = trade.getQuantity();
-
-		buyerShareholder.decPosition(security, tradeQuantity);
-	}
-
-	private void updateSellerPositionAtRollbackTrade(Trade trade) {
-		Order sellOrder = trade.getSell();
-		Shareholder sellerShareholder = sellOrder.getShareholder();
-		Security security = sellOrder.getSecurity();
-		int tradeQuantity = trade.getQuantity();
-
-		sellerShareholder.incPosition(security, tradeQuantity);
-	}
 }
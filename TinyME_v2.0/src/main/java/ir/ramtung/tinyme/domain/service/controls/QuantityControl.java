@@ -1,10 +1,10 @@
 package ir.ramtung.tinyme.domain.service.controls;
 
 import ir.ramtung.tinyme.domain.entity.IcebergOrder;
+import ir.ramtung.tinyme.domain.entity.MatchForecast;
 import ir.ramtung.tinyme.domain.entity.Order;
 import ir.ramtung.tinyme.domain.entity.OrderBook;
 import ir.ramtung.tinyme.domain.entity.Trade;
-import java.time.LocalDateTime;
 import java.util.List;
 import org.springframework.stereotype.Service;
 
@@ -24,16 +24,23 @@ public class QuantityControl {
 		}
 	}
 
+	public ControlResult checkMinimumExecutionQuantity(Order order, MatchForecast forecast) {
+		if (!order.isNew()) {
+			return ControlResult.OK;
+		}
+
+		if (order.isMinimumExecuteQuantitySatisfied(forecast.getQuantity())) {
+			return ControlResult.OK;
+		} else {
+			return ControlResult.NOT_ENOUGH_EXECUTION;
+		}
+	}
+
 	public void updateQuantitiesAtTrade(Trade trade, OrderBook orderBook) {
 		updateBuyQuantityAtTrade(trade, orderBook);
 		updateSellQuantityAtTrade(trade, orderBook);
 	}
 
-	public void updateQuantitiesAtRollbackTrade(Trade trade, OrderBook orderBook) {
-		updateBuyQuantityAtRollbackTrade(trade, orderBook);
-		updateSellQuantityAtRollbackTrade(trade, orderBook);
-	}
-
 	public void enqueueOrderToOrderBook(Order targetOrder, OrderBook orderBook) {
 		if (targetOrder instanceof IcebergOrder icebergOrder) {
 			icebergOrder.replenish();
@@ -77,32 +84,8 @@ public class QuantityControl {
 
 	private void checkIcebergQuantityForReplenish(IcebergOrder icebergOrder, OrderBook orderBook) {
 		if (icebergOrder.isDisplayZero() && !icebergOrder.isDone()) {
-			orderBook.removeOrder(icebergOrder);
 			icebergOrder.replenish();
-			icebergOrder.addUpdateTime(LocalDateTime.now());
-			orderBook.enqueue(icebergOrder);
-		}
-	}
-
-	private void updateBuyQuantityAtRollbackTrade(Trade trade, OrderBook orderBook) {
-		Order buyOrder = trade.getBuy();
-		Order originalBuyOrder = trade.getBuyFirstVersion();
-
-		checkQuantityForEnqueue(buyOrder, orderBook);
-		buyOrder.rollback(originalBuyOrder);
-	}
-
-	private void updateSellQuantityAtRollbackTrade(Trade trade, OrderBook orderBook) {
-		Order sellOrder = trade.getSell();
-		Order originalSellOrder = trade.getSellFirstVersion();
-
-		checkQuantityForEnqueue(sellOrder, orderBook);
-		sellOrder.rollback(originalSellOrder);
-	}
-
-	private void checkQuantityForEnqueue(Order order, OrderBook orderBook) {
-		if (order.isDeleted()) {
-			orderBook.enqueue(order);
+			orderBook.requeue(icebergOrder);
 		}
 	}
 }
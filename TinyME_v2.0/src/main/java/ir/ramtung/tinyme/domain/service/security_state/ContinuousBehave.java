@@ -5,6 +5,7 @@ import ir.ramtung.tinyme.domain.entity.Order;
 import ir.ramtung.tinyme.domain.entity.OrderBook;
 import ir.ramtung.tinyme.domain.entity.SecurityState;
 import ir.ramtung.tinyme.domain.entity.StopLimitOrder;
+import ir.ramtung.tinyme.domain.entity.Trade;
 import ir.ramtung.tinyme.domain.entity.stats.ExecuteStats;
 import ir.ramtung.tinyme.domain.entity.stats.SecurityStats;
 import ir.ramtung.tinyme.domain.entity.stats.SituationalStats;
@@ -51,7 +52,6 @@ public class ContinuousBehave implements SecurityBehave {
 		boolean losesPriority = mainOrder.willPriorityLostInUpdate(tempOrder);
 		if (losesPriority) {
 			Order originalOrder = mainOrder.snapshot();
-			creditControl.updateCreditAtDelete(mainOrder);
 			orderBook.removeOrder(mainOrder);
 			mainOrder.updateFromTempOrder(tempOrder);
 			return reAddUpdatedOrder(mainOrder, originalOrder, orderBook);
@@ -76,6 +76,10 @@ public class ContinuousBehave implements SecurityBehave {
 		StopLimitOrder slo;
 		int currentLastTradePrice = lastTradePrice;
 
+		// unlike in an auction, every activation can trade and move the last trade price, which can trigger more
+		// orders or leave ones triggered before it untriggered, so the orders are taken one at a time at the price
+		// as it stands rather than as one range
+
 		slo = orderBook.getStopLimitOrder(currentLastTradePrice);
 
 		while (slo != null) {
@@ -105,13 +109,12 @@ public class ContinuousBehave implements SecurityBehave {
 	}
 
 	private List<SecurityStats> addNewStopLimitOrder(StopLimitOrder newOrder, OrderBook orderBook) {
-		if (creditControl.checkCreditForBeingQueued(newOrder) != ControlResult.OK) {
+		if (creditControl.reserveCreditForBeingQueued(newOrder) != ControlResult.OK) {
 			return new ArrayList<SecurityStats>(
 				List.of(SituationalStats.createNotEnoughCreditStats(newOrder.getOrderId()))
 			);
 		}
 
-		creditControl.updateCreditForBeingQueued(newOrder);
 		orderBook.enqueue(newOrder);
 		return new ArrayList<SecurityStats>(List.of(SituationalStats.createAddOrderStats(newOrder.getOrderId())));
 	}
@@ -138,7 +141,6 @@ public class ContinuousBehave implements SecurityBehave {
 
 	private List<SecurityStats> reAddUpdatedOrder(Order updatedOrder, Order originalOrder, OrderBook orderBook) {
 		if (positionControl.checkPositionForOrder(updatedOrder, orderBook) != ControlResult.OK) {
-			creditControl.updateCreditForBeingQueued(originalOrder);
 			orderBook.enqueue(originalOrder);
 			return new ArrayList<SecurityStats>(
 				List.of(SituationalStats.createNotEnoughPositionsStats(originalOrder.getOrderId()))
@@ -158,15 +160,16 @@ public class ContinuousBehave implements SecurityBehave {
 		StopLimitOrder originalOrder,
 		OrderBook orderBook
 	) {
-		if (creditControl.checkCreditForBeingQueued(updatedOrder) != ControlResult.OK) {
-			creditControl.updateCreditForBeingQueued(originalOrder);
+		if (
+			creditControl.adjustCreditForBeingQueued(updatedOrder, originalOrder.getValue(), updatedOrder.getValue()) !=
+			ControlResult.OK
+		) {
 			orderBook.enqueue(originalOrder);
 			return new ArrayList<SecurityStats>(
 				List.of(SituationalStats.createNotEnoughCreditStats(originalOrder.getOrderId()))
 			);
 		}
 
-		creditControl.updateCreditForBeingQueued(updatedOrder);
 		orderBook.enqueue(updatedOrder);
 
 		List<SecurityStats> stats = new LinkedList<>();
@@ -174,14 +177,30 @@ public class ContinuousBehave implements SecurityBehave {
 		return stats;
 	}
 
+	// the updated order trades on the reservation it already holds, raised first if its forecast trades and the
+	// rest of it need more, and the reservation is only cut down to what is left queued once the update has gone
+	// through
 	private List<SecurityStats> reAddActiveOrder(Order updatedOrder, Order originalOrder, OrderBook orderBook) {
+		long originalValue = originalOrder.getValue();
+		long forecastValue = creditControl.getForecastCredit(updatedOrder, orderBook.forecastMatch(updatedOrder));
+		long heldValue = Math.max(originalValue, forecastValue);
+		if (creditControl.adjustCreditForBeingQueued(updatedOrder, originalValue, heldValue) != ControlResult.OK) {
+			orderBook.enqueue(originalOrder);
+			return new ArrayList<SecurityStats>(
+				List.of(SituationalStats.createNotEnoughCreditStats(originalOrder.getOrderId()))
+			);
+		}
+
 		List<SecurityStats> stats = new LinkedList<>();
 		stats.add(SituationalStats.createUpdateOrderStats(originalOrder.getOrderId()));
 
 		MatchResult updatedOrderResult = matcher.continuousExecuting(updatedOrder, orderBook);
 
-		if (!updatedOrderResult.isSuccessful()) {
-			creditControl.updateCreditForBeingQueued(originalOrder);
+		if (updatedOrderResult.isSuccessful()) {
+			long tradedValue = updatedOrderResult.trades().stream().mapToLong(Trade::getTradedValue).sum();
+			creditControl.adjustCreditForBeingQueued(updatedOrder, heldValue - tradedValue, updatedOrder.getValue());
+		} else {
+			creditControl.adjustCreditForBeingQueued(updatedOrder, heldValue, originalValue);
 			orderBook.enqueue(originalOrder);
 			stats.set(
 				0,
@@ -0,0 +1,508 @@
+package ir.ramtung.tinyme.messaging;
+
+import ir.ramtung.tinyme.domain.entity.Side;
+import ir.ramtung.tinyme.messaging.event.*;
+import ir.ramtung.tinyme.messaging.request.ChangeMatchingStateRq;
+import ir.ramtung.tinyme.messaging.request.DeleteOrderRq;
+import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
+import ir.ramtung.tinyme.messaging.request.MarketDepthRq;
+import ir.ramtung.tinyme.messaging.request.MatchingState;
+import ir.ramtung.tinyme.messaging.request.OrderEntryType;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+// fixed-layout little-endian wire format: a template id and a schema version, then the fixed-size fields of
+// the message in declaration order and last its variable-length fields (strings and lists) with length prefixes
+public final class BinaryCodec {
+
+	public static final byte VERSION = 1;
+
+	static final byte ENTER_ORDER_RQ = 1;
+	static final byte DELETE_ORDER_RQ = 2;
+	static final byte CHANGE_MATCHING_STATE_RQ = 3;
+	static final byte MARKET_DEPTH_RQ = 4;
+	static final byte ORDER_ACCEPTED = 10;
+	static final byte ORDER_UPDATED = 11;
+	static final byte ORDER_DELETED = 12;
+	static final byte ORDER_REJECTED = 13;
+	static final byte ORDER_EXECUTED = 14;
+	static final byte ORDER_ACTIVATED = 15;
+	static final byte TRADE = 16;
+	static final byte OPENING_PRICE = 17;
+	static final byte SECURITY_STATE_CHANGED = 18;
+	static final byte MARKET_DEPTH = 19;
+	static final byte MARKET_DATA = 20;
+	static final byte TOP_OF_BOOK_CHANGED = 21;
+	static final byte MARKET_DEPTH_REJECTED = 22;
+
+	private static final long NULL_TIME = Long.MIN_VALUE;
+	// string lengths are unsigned shorts, the largest of which marks a null string
+	private static final int NULL_STRING = 0xFFFF;
+	static final int MAX_STRING_BYTES = NULL_STRING - 1;
+	private static final Side[] SIDES = Side.values();
+	private static final OrderEntryType[] ENTRY_TYPES = OrderEntryType.values();
+	private static final MatchingState[] MATCHING_STATES = MatchingState.values();
+
+	private BinaryCodec() {}
+
+	public static ByteBuffer newBuffer(int capacity) {
+		return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	public static ByteBuffer wrap(byte[] bytes) {
+		return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	public static void encode(Object message, ByteBuffer buffer) {
+		switch (message) {
+			case EnterOrderRq rq -> encodeEnterOrderRq(rq, buffer);
+			case DeleteOrderRq rq -> encodeDeleteOrderRq(rq, buffer);
+			case ChangeMatchingStateRq rq -> encodeChangeMatchingStateRq(rq, buffer);
+			case MarketDepthRq rq -> encodeMarketDepthRq(rq, buffer);
+			case Event event -> encodeEvent(event, buffer);
+			default -> throw new IllegalArgumentException("No binary layout for " + message.getClass().getName());
+		}
+	}
+
+	public static Object decode(ByteBuffer buffer) {
+		byte template = buffer.get();
+		byte version = buffer.get();
+		if (version != VERSION) {
+			throw new IllegalArgumentException("Unsupported binary schema version " + version);
+		}
+
+		return switch (template) {
+			case ENTER_ORDER_RQ -> decodeEnterOrderRq(buffer);
+			case DELETE_ORDER_RQ -> decodeDeleteOrderRq(buffer);
+			case CHANGE_MATCHING_STATE_RQ -> decodeChangeMatchingStateRq(buffer);
+			case MARKET_DEPTH_RQ -> decodeMarketDepthRq(buffer);
+			default -> decodeEvent(template, buffer);
+		};
+	}
+
+	private static void encodeEnterOrderRq(EnterOrderRq rq, ByteBuffer buffer) {
+		putHeader(buffer, ENTER_ORDER_RQ);
+		putEnum(buffer, rq.getRequestType());
+		buffer.putLong(rq.getRequestId());
+		buffer.putLong(rq.getOrderId());
+		putEnum(buffer, rq.getSide());
+		putTime(buffer, rq.getEntryTime());
+		buffer.putInt(rq.getQuantity());
+		buffer.putInt(rq.getPrice());
+		buffer.putLong(rq.getBrokerId());
+		buffer.putLong(rq.getShareholderId());
+		buffer.putInt(rq.getPeakSize());
+		buffer.putInt(rq.getMinimumExecutionQuantity());
+		buffer.putInt(rq.getStopPrice());
+		putString(buffer, rq.getSecurityIsin());
+	}
+
+	private static EnterOrderRq decodeEnterOrderRq(ByteBuffer buffer) {
+		OrderEntryType requestType = getEnum(buffer, ENTRY_TYPES);
+		long requestId = buffer.getLong();
+		long orderId = buffer.getLong();
+		Side side = getEnum(buffer, SIDES);
+		LocalDateTime entryTime = getTime(buffer);
+		int quantity = buffer.getInt();
+		int price = buffer.getInt();
+		long brokerId = buffer.getLong();
+		long shareholderId = buffer.getLong();
+		int peakSize = buffer.getInt();
+		int minimumExecutionQuantity = buffer.getInt();
+		int stopPrice = buffer.getInt();
+		String securityIsin = getString(buffer);
+
+		if (requestType == OrderEntryType.UPDATE_ORDER) {
+			return EnterOrderRq.createUpdateOrderRq(
+				requestId,
+				securityIsin,
+				orderId,
+				entryTime,
+				side,
+				quantity,
+				price,
+				brokerId,
+				shareholderId,
+				peakSize,
+				minimumExecutionQuantity,
+				stopPrice
+			);
+		}
+		return EnterOrderRq.createNewOrderRq(
+			requestId,
+			securityIsin,
+			orderId,
+			entryTime,
+			side,
+			quantity,
+			price,
+			brokerId,
+			shareholderId,
+			peakSize,
+			minimumExecutionQuantity,
+			stopPrice
+		);
+	}
+
+	private static void encodeDeleteOrderRq(DeleteOrderRq rq, ByteBuffer buffer) {
+		putHeader(buffer, DELETE_ORDER_RQ);
+		buffer.putLong(rq.getRequestId());
+		buffer.putLong(rq.getOrderId());
+		putEnum(buffer, rq.getSide());
+		putTime(buffer, rq.getEntryTime());
+		putString(buffer, rq.getSecurityIsin());
+	}
+
+	private static DeleteOrderRq decodeDeleteOrderRq(ByteBuffer buffer) {
+		long requestId = buffer.getLong();
+		long orderId = buffer.getLong();
+		Side side = getEnum(buffer, SIDES);
+		LocalDateTime entryTime = getTime(buffer);
+		return new DeleteOrderRq(requestId, getString(buffer), side, orderId, entryTime);
+	}
+
+	private static void encodeChangeMatchingStateRq(ChangeMatchingStateRq rq, ByteBuffer buffer) {
+		putHeader(buffer, CHANGE_MATCHING_STATE_RQ);
+		putEnum(buffer, rq.getTargetState());
+		putString(buffer, rq.getSecurityIsin());
+	}
+
+	private static ChangeMatchingStateRq decodeChangeMatchingStateRq(ByteBuffer buffer) {
+		MatchingState targetState = getEnum(buffer, MATCHING_STATES);
+		return new ChangeMatchingStateRq(getString(buffer), targetState);
+	}
+
+	private static void encodeMarketDepthRq(MarketDepthRq rq, ByteBuffer buffer) {
+		putHeader(buffer, MARKET_DEPTH_RQ);
+		buffer.putLong(rq.getRequestId());
+		buffer.putInt(rq.getDepth());
+		putString(buffer, rq.getSecurityIsin());
+	}
+
+	private static MarketDepthRq decodeMarketDepthRq(ByteBuffer buffer) {
+		long requestId = buffer.getLong();
+		int depth = buffer.getInt();
+		return new MarketDepthRq(requestId, getString(buffer), depth);
+	}
+
+	private static void encodeEvent(Event event, ByteBuffer buffer) {
+		switch (event) {
+			case OrderAcceptedEvent e -> putOrderEvent(buffer, ORDER_ACCEPTED, e, e.getRequestId(), e.getOrderId());
+			case OrderUpdatedEvent e -> putOrderEvent(buffer, ORDER_UPDATED, e, e.getRequestId(), e.getOrderId());
+			case OrderDeletedEvent e -> putOrderEvent(buffer, ORDER_DELETED, e, e.getRequestId(), e.getOrderId());
+			case OrderRejectedEvent e -> {
+				putOrderEvent(buffer, ORDER_REJECTED, e, e.getRequestId(), e.getOrderId());
+				putStrings(buffer, e.getErrors());
+			}
+			case OrderExecutedEvent e -> {
+				putOrderEvent(buffer, ORDER_EXECUTED, e, e.getRequestId(), e.getOrderId());
+				putTrades(buffer, e.getTrades());
+			}
+			case OrderActivatedEvent e -> {
+				putEventHeader(buffer, ORDER_ACTIVATED, e);
+				buffer.putLong(e.getOrderId());
+			}
+			case TradeEvent e -> {
+				putEventHeader(buffer, TRADE, e);
+				buffer.putInt(e.getPrice());
+				buffer.putInt(e.getQuantity());
+				buffer.putLong(e.getBuyId());
+				buffer.putLong(e.getSellId());
+				putString(buffer, e.getSecurityIsin());
+			}
+			case OpeningPriceEvent e -> {
+				putEventHeader(buffer, OPENING_PRICE, e);
+				buffer.putInt(e.getOpeningPrice());
+				buffer.putInt(e.getTradableQuantity());
+				putString(buffer, e.getSecurityIsin());
+			}
+			case SecurityStateChangedEvent e -> {
+				putEventHeader(buffer, SECURITY_STATE_CHANGED, e);
+				putEnum(buffer, e.getState());
+				putString(buffer, e.getSecurityIsin());
+			}
+			case MarketDepthEvent e -> {
+				putEventHeader(buffer, MARKET_DEPTH, e);
+				buffer.putLong(e.getRequestId());
+				putString(buffer, e.getSecurityIsin());
+				putPriceLevels(buffer, e.getBids());
+				putPriceLevels(buffer, e.getAsks());
+			}
+			case MarketDepthRejectedEvent e -> {
+				putEventHeader(buffer, MARKET_DEPTH_REJECTED, e);
+				buffer.putLong(e.getRequestId());
+				putStrings(buffer, e.getErrors());
+			}
+			case TopOfBookChangedEvent e -> {
+				putEventHeader(buffer, TOP_OF_BOOK_CHANGED, e);
+				buffer.putLong(e.getEpoch());
+				buffer.putLong(e.getSequence());
+				putString(buffer, e.getSecurityIsin());
+				putPriceLevel(buffer, e.getBid());
+				putPriceLevel(buffer, e.getAsk());
+			}
+			case MarketDataEvent e -> {
+				putEventHeader(buffer, MARKET_DATA, e);
+				buffer.putLong(e.getEpoch());
+				buffer.putLong(e.getSequence());
+				putString(buffer, e.getSecurityIsin());
+				putLevelUpdates(buffer, e.getLevels());
+				putTrades(buffer, e.getTrades());
+			}
+			default -> throw new IllegalArgumentException("No binary layout for " + event.getClass().getName());
+		}
+	}
+
+	private static Event decodeEvent(byte template, ByteBuffer buffer) {
+		LocalDateTime time = getTime(buffer);
+		Event event =
+			switch (template) {
+				case ORDER_ACCEPTED -> new OrderAcceptedEvent(buffer.getLong(), buffer.getLong());
+				case ORDER_UPDATED -> new OrderUpdatedEvent(buffer.getLong(), buffer.getLong());
+				case ORDER_DELETED -> new OrderDeletedEvent(buffer.getLong(), buffer.getLong());
+				case ORDER_REJECTED -> new OrderRejectedEvent(buffer.getLong(), buffer.getLong(), getStrings(buffer));
+				case ORDER_EXECUTED -> new OrderExecutedEvent(buffer.getLong(), buffer.getLong(), getTrades(buffer));
+				case ORDER_ACTIVATED -> new OrderActivatedEvent(buffer.getLong());
+				case TRADE -> {
+					int price = buffer.getInt();
+					int quantity = buffer.getInt();
+					long buyId = buffer.getLong();
+					long sellId = buffer.getLong();
+					yield new TradeEvent(getString(buffer), price, quantity, buyId, sellId);
+				}
+				case OPENING_PRICE -> {
+					int openingPrice = buffer.getInt();
+					int tradableQuantity = buffer.getInt();
+					yield new OpeningPriceEvent(getString(buffer), openingPrice, tradableQuantity);
+				}
+				case SECURITY_STATE_CHANGED -> {
+					MatchingState state = getEnum(buffer, MATCHING_STATES);
+					yield new SecurityStateChangedEvent(getString(buffer), state);
+				}
+				case MARKET_DEPTH -> {
+					long requestId = buffer.getLong();
+					String securityIsin = getString(buffer);
+					yield new MarketDepthEvent(requestId, securityIsin, getPriceLevels(buffer), getPriceLevels(buffer));
+				}
+				case MARKET_DEPTH_REJECTED -> new MarketDepthRejectedEvent(buffer.getLong(), getStrings(buffer));
+				case TOP_OF_BOOK_CHANGED -> {
+					long epoch = buffer.getLong();
+					long sequence = buffer.getLong();
+					String securityIsin = getString(buffer);
+					PriceLevelDTO bid = getPriceLevel(buffer);
+					yield new TopOfBookChangedEvent(securityIsin, epoch, sequence, bid, getPriceLevel(buffer));
+				}
+				case MARKET_DATA -> {
+					long epoch = buffer.getLong();
+					long sequence = buffer.getLong();
+					String securityIsin = getString(buffer);
+					List<LevelUpdateDTO> levels = getLevelUpdates(buffer);
+					yield new MarketDataEvent(securityIsin, epoch, sequence, levels, getTrades(buffer));
+				}
+				default -> throw new IllegalArgumentException("Unknown binary template " + template);
+			};
+		event.setTime(time);
+		return event;
+	}
+
+	private static void putHeader(ByteBuffer buffer, byte template) {
+		buffer.put(template);
+		buffer.put(VERSION);
+	}
+
+	private static void putEventHeader(ByteBuffer buffer, byte template, Event event) {
+		putHeader(buffer, template);
+		putTime(buffer, event.getTime());
+	}
+
+	private static void putOrderEvent(ByteBuffer buffer, byte template, Event event, long requestId, long orderId) {
+		putEventHeader(buffer, template, event);
+		buffer.putLong(requestId);
+		buffer.putLong(orderId);
+	}
+
+	private static void putEnum(ByteBuffer buffer, Enum<?> value) {
+		buffer.put((value == null) ? -1 : (byte) value.ordinal());
+	}
+
+	private static <E extends Enum<E>> E getEnum(ByteBuffer buffer, E[] values) {
+		byte ordinal = buffer.get();
+		return (ordinal < 0) ? null : values[ordinal];
+	}
+
+	private static void putTime(ByteBuffer buffer, LocalDateTime time) {
+		if (time == null) {
+			buffer.putLong(NULL_TIME);
+			buffer.putInt(0);
+		} else {
+			buffer.putLong(time.toEpochSecond(ZoneOffset.UTC));
+			buffer.putInt(time.getNano());
+		}
+	}
+
+	private static LocalDateTime getTime(ByteBuffer buffer) {
+		long seconds = buffer.getLong();
+		int nanos = buffer.getInt();
+		return (seconds == NULL_TIME) ? null : LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+	}
+
+	private static void putString(ByteBuffer buffer, String value) {
+		if (value == null) {
+			buffer.putShort((short) NULL_STRING);
+			return;
+		}
+
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		if (bytes.length > MAX_STRING_BYTES) {
+			throw new IllegalArgumentException(
+				"String of " + bytes.length + " bytes is longer than the " + MAX_STRING_BYTES + " a message can hold"
+			);
+		}
+		buffer.putShort((short) bytes.length);
+		buffer.put(bytes);
+	}
+
+	private static String getString(ByteBuffer buffer) {
+		int length = Short.toUnsignedInt(buffer.getShort());
+		if (length == NULL_STRING) {
+			return null;
+		}
+
+		if (!buffer.hasArray()) {
+			byte[] bytes = new byte[length];
+			buffer.get(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+		buffer.position(buffer.position() + length);
+		return value;
+	}
+
+	private static void putStrings(ByteBuffer buffer, List<String> values) {
+		if (values == null) {
+			buffer.putInt(-1);
+			return;
+		}
+
+		buffer.putInt(values.size());
+		for (String value : values) {
+			putString(buffer, value);
+		}
+	}
+
+	private static List<String> getStrings(ByteBuffer buffer) {
+		int count = buffer.getInt();
+		if (count < 0) {
+			return null;
+		}
+
+		List<String> values = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			values.add(getString(buffer));
+		}
+		return values;
+	}
+
+	private static void putTrades(ByteBuffer buffer, List<TradeDTO> trades) {
+		if (trades == null) {
+			buffer.putInt(-1);
+			return;
+		}
+
+		buffer.putInt(trades.size());
+		for (TradeDTO trade : trades) {
+			buffer.putInt(trade.price());
+			buffer.putInt(trade.quantity());
+			buffer.putLong(trade.buyOrderId());
+			buffer.putLong(trade.sellOrderId());
+			putString(buffer, trade.securityIsin());
+		}
+	}
+
+	private static List<TradeDTO> getTrades(ByteBuffer buffer) {
+		int count = buffer.getInt();
+		if (count < 0) {
+			return null;
+		}
+
+		List<TradeDTO> trades = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			int price = buffer.getInt();
+			int quantity = buffer.getInt();
+			long buyOrderId = buffer.getLong();
+			long sellOrderId = buffer.getLong();
+			trades.add(new TradeDTO(getString(buffer), price, quantity, buyOrderId, sellOrderId));
+		}
+		return trades;
+	}
+
+	private static void putPriceLevels(ByteBuffer buffer, List<PriceLevelDTO> levels) {
+		if (levels == null) {
+			buffer.putInt(-1);
+			return;
+		}
+
+		buffer.putInt(levels.size());
+		for (PriceLevelDTO level : levels) {
+			putPriceLevel(buffer, level);
+		}
+	}
+
+	private static void putPriceLevel(ByteBuffer buffer, PriceLevelDTO level) {
+		buffer.putInt(level.price());
+		buffer.putInt(level.quantity());
+		buffer.putInt(level.orderCount());
+	}
+
+	private static PriceLevelDTO getPriceLevel(ByteBuffer buffer) {
+		return new PriceLevelDTO(buffer.getInt(), buffer.getInt(), buffer.getInt());
+	}
+
+	private static List<PriceLevelDTO> getPriceLevels(ByteBuffer buffer) {
+		int count = buffer.getInt();
+		if (count < 0) {
+			return null;
+		}
+
+		List<PriceLevelDTO> levels = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			levels.add(getPriceLevel(buffer));
+		}
+		return levels;
+	}
+
+	private static void putLevelUpdates(ByteBuffer buffer, List<LevelUpdateDTO> levels) {
+		if (levels == null) {
+			buffer.putInt(-1);
+			return;
+		}
+
+		buffer.putInt(levels.size());
+		for (LevelUpdateDTO level : levels) {
+			putEnum(buffer, level.side());
+			buffer.putInt(level.price());
+			buffer.putInt(level.quantity());
+			buffer.putInt(level.orderCount());
+		}
+	}
+
+	private static List<LevelUpdateDTO> getLevelUpdates(ByteBuffer buffer) {
+		int count = buffer.getInt();
+		if (count < 0) {
+			return null;
+		}
+
+		List<LevelUpdateDTO> levels = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			Side side = getEnum(buffer, SIDES);
+			levels.add(new LevelUpdateDTO(side, buffer.getInt(), buffer.getInt(), buffer.getInt()));
+		}
+		return levels;
+	}
+}
@@ -0,0 +1,63 @@
+package ir.ramtung.tinyme.messaging;
+
+import jakarta.jms.BytesMessage;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.Session;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import org.springframework.jms.support.converter.MessageConversionException;
+import org.springframework.jms.support.converter.MessageConverter;
+
+// sends messages as BytesMessages in the BinaryCodec layout; the _type property is kept the same as the
+// jackson converter sets it, so the request listeners select messages alike in both formats
+public class BinaryMessageConverter implements MessageConverter {
+
+	public static final String TYPE_ID_PROPERTY = "_type";
+
+	private static final int INITIAL_BUFFER_SIZE = 1024;
+
+	private final ThreadLocal<ByteBuffer> buffers = ThreadLocal.withInitial(() ->
+		BinaryCodec.newBuffer(INITIAL_BUFFER_SIZE)
+	);
+
+	@Override
+	public Message toMessage(Object object, Session session) throws JMSException {
+		ByteBuffer buffer = encode(object);
+		BytesMessage message = session.createBytesMessage();
+		message.writeBytes(buffer.array(), 0, buffer.position());
+		message.setStringProperty(TYPE_ID_PROPERTY, object.getClass().getName());
+		return message;
+	}
+
+	@Override
+	public Object fromMessage(Message message) throws JMSException {
+		if (!(message instanceof BytesMessage bytesMessage)) {
+			throw new MessageConversionException("Expected a BytesMessage but received " + message);
+		}
+
+		byte[] bytes = new byte[(int) bytesMessage.getBodyLength()];
+		bytesMessage.readBytes(bytes);
+		try {
+			return BinaryCodec.decode(BinaryCodec.wrap(bytes));
+		} catch (RuntimeException ex) {
+			throw new MessageConversionException("Could not decode binary message", ex);
+		}
+	}
+
+	private ByteBuffer encode(Object object) {
+		ByteBuffer buffer = buffers.get();
+		while (true) {
+			buffer.clear();
+			try {
+				BinaryCodec.encode(object, buffer);
+				return buffer;
+			} catch (BufferOverflowException ex) {
+				buffer = BinaryCodec.newBuffer(buffer.capacity() * 2);
+				buffers.set(buffer);
+			} catch (IllegalArgumentException ex) {
+				throw new MessageConversionException(ex.getMessage(), ex);
+			}
+		}
+	}
+}
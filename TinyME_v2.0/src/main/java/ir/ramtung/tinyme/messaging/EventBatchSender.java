@@ -0,0 +1,66 @@
+package ir.ramtung.tinyme.messaging;
+
+import ir.ramtung.tinyme.messaging.event.Event;
+import jakarta.jms.Connection;
+import jakarta.jms.Destination;
+import jakarta.jms.JMSException;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Session;
+import java.util.List;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.support.JmsUtils;
+import org.springframework.jms.support.converter.MessageConverter;
+
+// keeps one transacted session and its producer open on the sender thread, so a whole batch of events
+// costs a single commit instead of a session and a producer per event as JmsTemplate.convertAndSend does
+public class EventBatchSender implements AutoCloseable {
+
+	private final JmsTemplate jmsTemplate;
+	private final String destinationName;
+
+	private Connection connection;
+	private Session session;
+	private MessageProducer producer;
+
+	public EventBatchSender(JmsTemplate jmsTemplate, String destinationName) {
+		this.jmsTemplate = jmsTemplate;
+		this.destinationName = destinationName;
+	}
+
+	public void send(List<Event> events) throws JMSException {
+		try {
+			if (producer == null) {
+				open();
+			}
+
+			MessageConverter converter = jmsTemplate.getMessageConverter();
+			for (Event event : events) {
+				producer.send(converter.toMessage(event, session));
+			}
+			session.commit();
+		} catch (JMSException | RuntimeException ex) {
+			// the session may be broken, so the next batch starts on a fresh one
+			close();
+			throw ex;
+		}
+	}
+
+	private void open() throws JMSException {
+		connection = jmsTemplate.getConnectionFactory().createConnection();
+		session = connection.createSession(true, Session.SESSION_TRANSACTED);
+		Destination destination = jmsTemplate
+			.getDestinationResolver()
+			.resolveDestinationName(session, destinationName, jmsTemplate.isPubSubDomain());
+		producer = session.createProducer(destination);
+	}
+
+	@Override
+	public void close() {
+		JmsUtils.closeMessageProducer(producer);
+		JmsUtils.closeSession(session);
+		JmsUtils.closeConnection(connection);
+		producer = null;
+		session = null;
+		connection = null;
+	}
+}
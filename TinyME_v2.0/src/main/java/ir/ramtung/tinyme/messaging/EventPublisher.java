@@ -1,26 +1,188 @@
 package ir.ramtung.tinyme.messaging;
 
 import ir.ramtung.tinyme.messaging.event.Event;
+import jakarta.annotation.PreDestroy;
+import jakarta.jms.JMSException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.logging.Level;
 import java.util.logging.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jms.core.JmsTemplate;
 import org.springframework.stereotype.Component;
 
+// with an event buffer, matching threads only put events in the ring and a sender thread does the jms sends,
+// sending all events that piled up meanwhile, such as the events of one response, in a single transaction.
+// a batch that fails is sent again a few times; if it never gets through, the publisher stops and refuses every
+// later event, as the synchronous send would have failed the request, instead of dropping responses
 @Component
 public class EventPublisher {
 
+	static final int SEND_ATTEMPTS = 5;
+	static final long FIRST_RETRY_MILLIS = 100;
+
 	private final Logger log = Logger.getLogger(this.getClass().getName());
 	private final JmsTemplate jmsTemplate;
+	private final String destination;
+	private final EventRing ring;
+	private final int eventBatchSize;
+	private final Supplier<EventBatchSender> batchSenders;
+	private final int sendAttempts;
+	private final long firstRetryMillis;
+	private final Thread sender;
+	private volatile boolean running;
+	private volatile RuntimeException failure;
 
-	@Value("${responseQueue}")
-	private String responseQueue;
+	@Autowired
+	public EventPublisher(
+		JmsTemplate jmsTemplate,
+		@Value("${responseQueue}") String responseQueue,
+		@Value("${eventBufferSize:0}") int eventBufferSize,
+		@Value("${eventBatchSize:1}") int eventBatchSize
+	) {
+		this(jmsTemplate, responseQueue, eventBufferSize, eventBatchSize, "event-publisher");
+	}
 
-	public EventPublisher(JmsTemplate jmsTemplate) {
+	EventPublisher(
+		JmsTemplate jmsTemplate,
+		String destination,
+		int eventBufferSize,
+		int eventBatchSize,
+		String senderName
+	) {
+		this(
+			jmsTemplate,
+			destination,
+			eventBufferSize,
+			eventBatchSize,
+			senderName,
+			() -> new EventBatchSender(jmsTemplate, destination),
+			SEND_ATTEMPTS,
+			FIRST_RETRY_MILLIS
+		);
+	}
+
+	EventPublisher(
+		JmsTemplate jmsTemplate,
+		String destination,
+		int eventBufferSize,
+		int eventBatchSize,
+		String senderName,
+		Supplier<EventBatchSender> batchSenders,
+		int sendAttempts,
+		long firstRetryMillis
+	) {
 		this.jmsTemplate = jmsTemplate;
+		this.destination = destination;
+		this.eventBatchSize = Math.max(eventBatchSize, 1);
+		this.batchSenders = batchSenders;
+		this.sendAttempts = Math.max(sendAttempts, 1);
+		this.firstRetryMillis = firstRetryMillis;
+		if (eventBufferSize > 0) {
+			ring = new EventRing(eventBufferSize);
+			running = true;
+			sender = new Thread(this::sendBufferedEvents, senderName);
+			sender.setDaemon(true);
+			sender.start();
+		} else {
+			ring = null;
+			sender = null;
+		}
 	}
 
 	public void publish(Event event) {
-		log.info("Published : " + event);
-		jmsTemplate.convertAndSend(responseQueue, event);
+		if (ring == null) {
+			send(event);
+			return;
+		}
+
+		// backpressure: a full ring holds the matching thread until the sender catches up or gives up
+		int spins = 0;
+		checkSending();
+		while (!ring.offer(event)) {
+			checkSending();
+			spins = EventRing.backOff(spins);
+		}
+	}
+
+	// throws once the sender thread has given up on a batch, so no more requests are answered into the void
+	public void checkSending() {
+		if (failure != null) {
+			throw new IllegalStateException("Publishing to " + destination + " has stopped", failure);
+		}
+	}
+
+	private void send(Event event) {
+		log.info(() -> "Published : " + event);
+		jmsTemplate.convertAndSend(destination, event);
+	}
+
+	private void sendBufferedEvents() {
+		List<Event> batch = new ArrayList<>(eventBatchSize);
+		int spins = 0;
+		try (EventBatchSender batchSender = batchSenders.get()) {
+			while (running || !ring.isEmpty()) {
+				if (ring.drainTo(batch, eventBatchSize) == 0) {
+					spins = EventRing.backOff(spins);
+					continue;
+				}
+
+				spins = 0;
+				if (!sendBatch(batchSender, batch)) {
+					return;
+				}
+				batch.clear();
+			}
+		}
+	}
+
+	// a failed transaction sent none of the batch, and the batch sender starts the next attempt on a fresh
+	// connection, so the same batch is sent again, waiting twice as long before each attempt
+	private boolean sendBatch(EventBatchSender batchSender, List<Event> batch) {
+		long retryMillis = firstRetryMillis;
+		for (int attempt = 1; ; attempt++) {
+			try {
+				if (eventBatchSize == 1) {
+					send(batch.getFirst());
+				} else {
+					batchSender.send(batch);
+					for (Event event : batch) {
+						log.info(() -> "Published : " + event);
+					}
+				}
+				return true;
+			} catch (JMSException | RuntimeException ex) {
+				if (attempt == sendAttempts || !pause(retryMillis)) {
+					failure = new IllegalStateException(
+						"Failed to publish " + batch.size() + " events after " + attempt + " attempts",
+						ex
+					);
+					log.log(Level.SEVERE, "Stopped publishing to " + destination, failure);
+					return false;
+				}
+				log.log(Level.WARNING, "Failed to publish " + batch.size() + " events, attempt " + attempt, ex);
+				retryMillis *= 2;
+			}
+		}
+	}
+
+	private static boolean pause(long millis) {
+		try {
+			Thread.sleep(millis);
+			return true;
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() throws InterruptedException {
+		if (sender != null) {
+			running = false;
+			sender.join();
+		}
 	}
 }
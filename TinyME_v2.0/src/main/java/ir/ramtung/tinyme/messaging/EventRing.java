@@ -0,0 +1,97 @@
+package ir.ramtung.tinyme.messaging;
+
+import ir.ramtung.tinyme.messaging.event.Event;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+// bounded ring between the matching threads and the single sender thread; every slot carries the
+// sequence it is ready for, so producers claim slots with one compare-and-set and never take a lock.
+// slots are taken in claim order, so events of a security, all put by its one matching thread, keep their order
+class EventRing {
+
+	private static final int SPINS_BEFORE_PARKING = 100;
+	private static final long PARK_NANOS = 50_000;
+
+	private final Event[] events;
+	private final AtomicLongArray sequences;
+	private final int mask;
+	private final AtomicLong tail = new AtomicLong();
+	private long head;
+
+	EventRing(int capacity) {
+		if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+			throw new IllegalArgumentException("capacity of EventRing must be a power of two");
+		}
+
+		events = new Event[capacity];
+		sequences = new AtomicLongArray(capacity);
+		mask = capacity - 1;
+		for (int slot = 0; slot < capacity; slot++) {
+			sequences.set(slot, slot);
+		}
+	}
+
+	int capacity() {
+		return events.length;
+	}
+
+	boolean offer(Event event) {
+		long position;
+		int slot;
+		while (true) {
+			position = tail.get();
+			slot = (int) position & mask;
+			long ready = sequences.get(slot) - position;
+			if (ready == 0 && tail.compareAndSet(position, position + 1)) {
+				break;
+			}
+			if (ready < 0) {
+				return false;
+			}
+		}
+
+		events[slot] = event;
+		sequences.set(slot, position + 1);
+		return true;
+	}
+
+	// called only from the sender thread
+	Event poll() {
+		int slot = (int) head & mask;
+		if (sequences.get(slot) != head + 1) {
+			return null;
+		}
+
+		Event event = events[slot];
+		events[slot] = null;
+		sequences.set(slot, head + events.length);
+		head++;
+		return event;
+	}
+
+	// called only from the sender thread
+	int drainTo(List<Event> batch, int maxEvents) {
+		int drained = 0;
+		Event event;
+		while (drained < maxEvents && (event = poll()) != null) {
+			batch.add(event);
+			drained++;
+		}
+		return drained;
+	}
+
+	boolean isEmpty() {
+		return sequences.get((int) head & mask) != head + 1;
+	}
+
+	static int backOff(int spins) {
+		if (spins < SPINS_BEFORE_PARKING) {
+			Thread.onSpinWait();
+			return spins + 1;
+		}
+		LockSupport.parkNanos(PARK_NANOS);
+		return spins;
+	}
+}
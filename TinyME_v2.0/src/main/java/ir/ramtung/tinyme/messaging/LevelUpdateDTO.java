@@ -0,0 +1,6 @@
+package ir.ramtung.tinyme.messaging;
+
+import ir.ramtung.tinyme.domain.entity.Side;
+
+// the displayed quantity and order count a price level has now, both zero once the level is gone
+public record LevelUpdateDTO(Side side, int price, int quantity, int orderCount) {}
@@ -0,0 +1,144 @@
+package ir.ramtung.tinyme.messaging;
+
+import ir.ramtung.tinyme.domain.entity.OrderBook;
+import ir.ramtung.tinyme.domain.entity.PriceLevel;
+import ir.ramtung.tinyme.domain.entity.Security;
+import ir.ramtung.tinyme.domain.entity.Side;
+import ir.ramtung.tinyme.messaging.event.Event;
+import ir.ramtung.tinyme.messaging.event.MarketDataEvent;
+import ir.ramtung.tinyme.messaging.event.OrderExecutedEvent;
+import ir.ramtung.tinyme.messaging.event.TopOfBookChangedEvent;
+import ir.ramtung.tinyme.messaging.event.TradeEvent;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.stereotype.Component;
+
+// publishes the public side of what each request did to a security on marketDataTopic, apart from the order
+// responses: one event per request with the levels it changed, each once with where it ended up however many
+// times it changed on the way, and the trades it made, followed by the new best bid and offer when either moved;
+// the events of a security are numbered from 1 in the epoch of every start, so a consumer can tell a missed event
+// from a restart
+@Component
+public class MarketDataPublisher {
+
+	private static final Side[] SIDES = Side.values();
+
+	private final EventPublisher feed;
+	private final long epoch;
+	private final Map<String, AtomicLong> sequences = new ConcurrentHashMap<>();
+
+	@Autowired
+	public MarketDataPublisher(
+		JmsTemplate jmsTemplate,
+		@Value("${marketDataTopic:}") String marketDataTopic,
+		@Value("${eventBufferSize:0}") int eventBufferSize,
+		@Value("${eventBatchSize:1}") int eventBatchSize
+	) {
+		this(
+			marketDataTopic.isBlank()
+				? null
+				: new EventPublisher(
+					topicTemplate(jmsTemplate),
+					marketDataTopic,
+					eventBufferSize,
+					eventBatchSize,
+					"market-data-publisher"
+				)
+		);
+	}
+
+	// without a feed the changes are only dropped
+	public MarketDataPublisher(EventPublisher feed) {
+		this(feed, System.currentTimeMillis());
+	}
+
+	MarketDataPublisher(EventPublisher feed, long epoch) {
+		this.feed = feed;
+		this.epoch = epoch;
+	}
+
+	public boolean isEnabled() {
+		return feed != null;
+	}
+
+	// runs on the thread that handled the request, right after it
+	public void publish(Security security, List<Event> events) {
+		OrderBook orderBook = security.getOrderBook();
+		// the best bid and offer only go out on the feed, so without one they are not even looked at
+		if (feed == null) {
+			for (Side side : SIDES) {
+				orderBook.takeChangedLevels(side, price -> {});
+			}
+			return;
+		}
+
+		boolean topOfBookChanged = orderBook.takeTopOfBookChange();
+		List<LevelUpdateDTO> levels = new ArrayList<>();
+		for (Side side : SIDES) {
+			orderBook.takeChangedLevels(side, price -> levels.add(levelUpdate(orderBook, side, price)));
+		}
+		// continuous trades come in the execution of the order that made them, auction trades one by one
+		List<TradeDTO> trades = new ArrayList<>();
+		for (Event event : events) {
+			if (event instanceof OrderExecutedEvent executed) {
+				trades.addAll(executed.getTrades());
+			} else if (event instanceof TradeEvent trade) {
+				trades.add(
+					new TradeDTO(
+						trade.getSecurityIsin(),
+						trade.getPrice(),
+						trade.getQuantity(),
+						trade.getBuyId(),
+						trade.getSellId()
+					)
+				);
+			}
+		}
+		if (levels.isEmpty() && trades.isEmpty() && !topOfBookChanged) {
+			return;
+		}
+
+		long sequence = sequences.computeIfAbsent(security.getIsin(), isin -> new AtomicLong()).incrementAndGet();
+		feed.publish(new MarketDataEvent(security.getIsin(), epoch, sequence, levels, trades));
+		if (topOfBookChanged) {
+			feed.publish(
+				new TopOfBookChangedEvent(
+					security.getIsin(),
+					epoch,
+					sequence,
+					new PriceLevelDTO(orderBook.getTopOfBook(Side.BUY)),
+					new PriceLevelDTO(orderBook.getTopOfBook(Side.SELL))
+				)
+			);
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() throws InterruptedException {
+		if (feed != null) {
+			feed.shutdown();
+		}
+	}
+
+	private static LevelUpdateDTO levelUpdate(OrderBook orderBook, Side side, int price) {
+		PriceLevel level = orderBook.getActiveLevel(side, price);
+		if (level == null) {
+			return new LevelUpdateDTO(side, price, 0, 0);
+		}
+		return new LevelUpdateDTO(side, price, level.getDisplayedQuantity(), level.size());
+	}
+
+	private static JmsTemplate topicTemplate(JmsTemplate jmsTemplate) {
+		JmsTemplate topicTemplate = new JmsTemplate(jmsTemplate.getConnectionFactory());
+		topicTemplate.setMessageConverter(jmsTemplate.getMessageConverter());
+		topicTemplate.setPubSubDomain(true);
+		return topicTemplate;
+	}
+}
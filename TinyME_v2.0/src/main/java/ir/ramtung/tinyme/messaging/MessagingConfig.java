@@ -1,5 +1,6 @@
 package ir.ramtung.tinyme.messaging;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jms.support.converter.MappingJackson2MessageConverter;
@@ -10,10 +11,17 @@ import org.springframework.jms.support.converter.MessageType;
 public class MessagingConfig {
 
 	@Bean
+	@ConditionalOnProperty(name = "messageFormat", havingValue = "json", matchIfMissing = true)
 	public MessageConverter jacksonJmsMessageConverter() {
 		MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
 		converter.setTargetType(MessageType.TEXT);
 		converter.setTypeIdPropertyName("_type");
 		return converter;
 	}
+
+	@Bean
+	@ConditionalOnProperty(name = "messageFormat", havingValue = "binary")
+	public MessageConverter binaryJmsMessageConverter() {
+		return new BinaryMessageConverter();
+	}
 }
@@ -0,0 +1,14 @@
+package ir.ramtung.tinyme.messaging;
+
+import ir.ramtung.tinyme.domain.entity.PriceLevel;
+import ir.ramtung.tinyme.domain.entity.TopOfBook;
+
+public record PriceLevelDTO(int price, int quantity, int orderCount) {
+	public PriceLevelDTO(PriceLevel level) {
+		this(level.getPrice(), level.getDisplayedQuantity(), level.size());
+	}
+
+	public PriceLevelDTO(TopOfBook top) {
+		this(top.price(), top.quantity(), top.orderCount());
+	}
+}
@@ -1,21 +1,26 @@
 package ir.ramtung.tinyme.messaging;
 
-import ir.ramtung.tinyme.domain.service.OrderHandler;
+import ir.ramtung.tinyme.domain.service.MatchingShards;
+import ir.ramtung.tinyme.messaging.request.BaseRq;
 import ir.ramtung.tinyme.messaging.request.ChangeMatchingStateRq;
 import ir.ramtung.tinyme.messaging.request.DeleteOrderRq;
 import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
+import ir.ramtung.tinyme.messaging.request.MarketDepthRq;
 import java.util.logging.Logger;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.jms.annotation.JmsListener;
 import org.springframework.stereotype.Component;
 
+// one listener per request type, each selecting its messages by the _type property on the broker
 @Component
+@ConditionalOnProperty(name = "ingress", havingValue = "selectors", matchIfMissing = true)
 public class RequestDispatcher {
 
 	private final Logger log = Logger.getLogger(this.getClass().getName());
-	private final OrderHandler orderHandler;
+	private final MatchingShards matchingShards;
 
-	public RequestDispatcher(OrderHandler orderHandler) {
-		this.orderHandler = orderHandler;
+	public RequestDispatcher(MatchingShards matchingShards) {
+		this.matchingShards = matchingShards;
 	}
 
 	@JmsListener(
@@ -24,7 +29,7 @@ public class RequestDispatcher {
 	)
 	public void receiveEnterOrderRq(EnterOrderRq enterOrderRq) {
 		log.info("Received message: " + enterOrderRq);
-		orderHandler.handleRq(enterOrderRq);
+		dispatch(enterOrderRq);
 	}
 
 	@JmsListener(
@@ -33,7 +38,7 @@ public class RequestDispatcher {
 	)
 	public void receiveDeleteOrderRq(DeleteOrderRq deleteOrderRq) {
 		log.info("Received message: " + deleteOrderRq);
-		orderHandler.handleRq(deleteOrderRq);
+		dispatch(deleteOrderRq);
 	}
 
 	@JmsListener(
@@ -42,6 +47,19 @@ public class RequestDispatcher {
 	)
 	public void receiveChangeMatchingStateRq(ChangeMatchingStateRq changeMatchingStateRq) {
 		log.info("Received message: " + changeMatchingStateRq);
-		orderHandler.handleRq(changeMatchingStateRq);
+		dispatch(changeMatchingStateRq);
+	}
+
+	@JmsListener(
+		destination = "${requestQueue}",
+		selector = "_type='ir.ramtung.tinyme.messaging.request.MarketDepthRq'"
+	)
+	public void receiveMarketDepthRq(MarketDepthRq marketDepthRq) {
+		log.info("Received message: " + marketDepthRq);
+		dispatch(marketDepthRq);
+	}
+
+	private void dispatch(BaseRq baseRq) {
+		matchingShards.dispatch(baseRq);
 	}
 }
@@ -0,0 +1,28 @@
+package ir.ramtung.tinyme.messaging;
+
+import ir.ramtung.tinyme.domain.service.MatchingShards;
+import ir.ramtung.tinyme.messaging.request.BaseRq;
+import java.util.logging.Logger;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jms.annotation.JmsListener;
+import org.springframework.stereotype.Component;
+
+// a single consumer takes every request off the queue without a selector and the message converter picks
+// the request type from the _type property in-process, so requests are handled in the order they were sent
+@Component
+@ConditionalOnProperty(name = "ingress", havingValue = "single")
+public class RequestIngress {
+
+	private final Logger log = Logger.getLogger(this.getClass().getName());
+	private final MatchingShards matchingShards;
+
+	public RequestIngress(MatchingShards matchingShards) {
+		this.matchingShards = matchingShards;
+	}
+
+	@JmsListener(destination = "${requestQueue}", concurrency = "1")
+	public void receiveRq(BaseRq baseRq) {
+		log.info(() -> "Received message: " + baseRq);
+		matchingShards.dispatch(baseRq);
+	}
+}
@@ -0,0 +1,24 @@
+package ir.ramtung.tinyme.messaging.event;
+
+import ir.ramtung.tinyme.messaging.LevelUpdateDTO;
+import ir.ramtung.tinyme.messaging.TradeDTO;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+@Data
+@EqualsAndHashCode(callSuper = false)
+@AllArgsConstructor
+@NoArgsConstructor
+public class MarketDataEvent extends Event {
+
+	private String securityIsin;
+	// the start time of the engine in epoch millis; sequences restart at 1 in every epoch, so a new epoch tells a
+	// consumer to rebuild its book, from a depth request, rather than that it missed events
+	private long epoch;
+	private long sequence;
+	private List<LevelUpdateDTO> levels;
+	private List<TradeDTO> trades;
+}
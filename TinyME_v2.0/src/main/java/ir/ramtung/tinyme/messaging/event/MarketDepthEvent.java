@@ -0,0 +1,20 @@
+package ir.ramtung.tinyme.messaging.event;
+
+import ir.ramtung.tinyme.messaging.PriceLevelDTO;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+@Data
+@EqualsAndHashCode(callSuper = false)
+@AllArgsConstructor
+@NoArgsConstructor
+public class MarketDepthEvent extends Event {
+
+	private long requestId;
+	private String securityIsin;
+	private List<PriceLevelDTO> bids;
+	private List<PriceLevelDTO> asks;
+}
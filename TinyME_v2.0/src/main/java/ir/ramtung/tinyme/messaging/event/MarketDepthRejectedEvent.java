@@ -0,0 +1,17 @@
+package ir.ramtung.tinyme.messaging.event;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+@Data
+@EqualsAndHashCode(callSuper = false)
+@AllArgsConstructor
+@NoArgsConstructor
+public class MarketDepthRejectedEvent extends Event {
+
+	private long requestId;
+	private List<String> errors;
+}
@@ -0,0 +1,21 @@
+package ir.ramtung.tinyme.messaging.event;
+
+import ir.ramtung.tinyme.messaging.PriceLevelDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+@Data
+@EqualsAndHashCode(callSuper = false)
+@AllArgsConstructor
+@NoArgsConstructor
+public class TopOfBookChangedEvent extends Event {
+
+	private String securityIsin;
+	// the epoch and sequence of the market-data event of the request that changed the top
+	private long epoch;
+	private long sequence;
+	private PriceLevelDTO bid;
+	private PriceLevelDTO ask;
+}
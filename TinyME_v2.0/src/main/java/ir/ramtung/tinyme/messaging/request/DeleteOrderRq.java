@@ -2,6 +2,7 @@ package ir.ramtung.tinyme.messaging.request;
 
 import ir.ramtung.tinyme.domain.entity.Side;
 import ir.ramtung.tinyme.messaging.Message;
+import java.time.LocalDateTime;
 import java.util.LinkedList;
 import java.util.List;
 import lombok.NoArgsConstructor;
@@ -13,6 +14,11 @@ public class DeleteOrderRq extends BaseOrderRq {
 		super(requestId, securityIsin, side, orderId);
 	}
 
+	public DeleteOrderRq(long requestId, String securityIsin, Side side, long orderId, LocalDateTime entryTime) {
+		super(requestId, securityIsin, side, orderId);
+		this.entryTime = entryTime;
+	}
+
 	@Override
 	public String toString() {
 		return "DeleteOrderRq(" + this.getAllPropertiesString() + ")";
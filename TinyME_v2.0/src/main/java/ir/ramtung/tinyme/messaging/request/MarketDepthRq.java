@@ -0,0 +1,34 @@
+package ir.ramtung.tinyme.messaging.request;
+
+import ir.ramtung.tinyme.messaging.Message;
+import java.util.LinkedList;
+import java.util.List;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+// asks for the best price levels of both sides of a security's book, answered with a MarketDepthEvent
+@Getter
+@ToString
+@NoArgsConstructor
+public class MarketDepthRq extends BaseRq {
+
+	private long requestId;
+	private int depth;
+
+	public MarketDepthRq(long requestId, String securityIsin, int depth) {
+		this.requestId = requestId;
+		this.securityIsin = securityIsin;
+		this.depth = depth;
+	}
+
+	public List<String> validateYourFields() {
+		List<String> errors = new LinkedList<>();
+
+		if (depth <= 0) {
+			errors.add(Message.MARKET_DEPTH_NOT_POSITIVE);
+		}
+
+		return errors;
+	}
+}
@@ -2,7 +2,11 @@ package ir.ramtung.tinyme.repository;
 
 import ir.ramtung.tinyme.domain.entity.Broker;
 import ir.ramtung.tinyme.repository.exception.NotFoundException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -10,6 +14,8 @@ public class BrokerRepository {
 
 	private final HashMap<Long, Broker> brokerById = new HashMap<>();
 
+	private final Queue<Broker> changedBrokers = new ConcurrentLinkedQueue<>();
+
 	public Broker findBrokerById(long brokerId) {
 		Broker broker = brokerById.get(brokerId);
 		if (broker == null) {
@@ -30,13 +36,24 @@ public class BrokerRepository {
 
 	public void addBroker(Broker broker) {
 		brokerById.put(broker.getBrokerId(), broker);
+		broker.getDirtyMark().trackWith(changedBrokers::add);
 	}
 
 	public void clear() {
 		brokerById.clear();
+		changedBrokers.clear();
 	}
 
 	Iterable<? extends Broker> allBrokers() {
 		return brokerById.values();
 	}
+
+	List<Broker> takeChangedBrokers() {
+		List<Broker> changed = new ArrayList<>();
+		for (Broker broker; (broker = changedBrokers.poll()) != null; ) {
+			broker.getDirtyMark().clear();
+			changed.add(broker);
+		}
+		return changed;
+	}
 }
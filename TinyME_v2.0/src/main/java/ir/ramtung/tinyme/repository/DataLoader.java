@@ -1,18 +1,27 @@
 package ir.ramtung.tinyme.repository;
 
+import com.opencsv.CSVParser;
 import com.opencsv.CSVReader;
 import com.opencsv.CSVReaderBuilder;
 import ir.ramtung.tinyme.domain.entity.*;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
-import java.io.FileReader;
+import java.io.BufferedReader;
 import java.io.FileWriter;
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.Reader;
+import java.nio.file.Files;
 import java.time.LocalDateTime;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.StringJoiner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
@@ -27,15 +36,21 @@ public class DataLoader {
 	private final BrokerRepository brokerRepository;
 	private final ShareholderRepository shareholderRepository;
 	private final SecurityRepository securityRepository;
+	private final RequestJournal requestJournal;
+	private final SnapshotStore snapshotStore;
 
 	public DataLoader(
 		BrokerRepository brokerRepository,
 		ShareholderRepository shareholderRepository,
-		SecurityRepository securityRepository
+		SecurityRepository securityRepository,
+		RequestJournal requestJournal,
+		SnapshotStore snapshotStore
 	) {
 		this.brokerRepository = brokerRepository;
 		this.shareholderRepository = shareholderRepository;
 		this.securityRepository = securityRepository;
+		this.requestJournal = requestJournal;
+		this.snapshotStore = snapshotStore;
 	}
 
 	@Value("classpath:persistence/broker.csv")
@@ -55,146 +70,233 @@ public class DataLoader {
 
 	@PostConstruct
 	public void loadAll() throws Exception {
-		loadBrokers();
-		loadShareholders();
-		loadSecurities();
-		loadPositions();
-		loadOrderBook();
+		if (!snapshotStore.loadNewest()) {
+			loadCsvFiles();
+			snapshotStore.loadCheckpoints();
+		}
+		rebuildReservedCredit();
+		// the loaded books are where the market data of this run starts from, not changes to publish
+		for (Security security : securityRepository.allSecurities()) {
+			security.getOrderBook().forgetChanges();
+		}
+	}
+
+	// the csv files hold only the available credit, and the books are what decides how much is reserved, so the
+	// reservation of every buy order left in a book is rebuilt from it whatever the data was loaded from
+	private void rebuildReservedCredit() {
+		Map<Broker, Long> reserved = new HashMap<>();
+		for (Security security : securityRepository.allSecurities()) {
+			OrderBook orderBook = security.getOrderBook();
+			for (Order order : orderBook.getBuyQueue()) {
+				reserved.merge(order.getBroker(), order.getValue(), Long::sum);
+			}
+			for (Order order : orderBook.getStopLimitOrderBuyQueue()) {
+				reserved.merge(order.getBroker(), order.getValue(), Long::sum);
+			}
+		}
+		for (Broker broker : brokerRepository.allBrokers()) {
+			broker.restoreCredit(broker.getCredit(), reserved.getOrDefault(broker, 0L));
+		}
+	}
+
+	private void loadCsvFiles() throws Exception {
+		long start = System.nanoTime();
+		try (ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors())) {
+			await(
+				List.of(
+					submit(executor, () -> loadBrokers(open(brokerCsvResource))),
+					submit(executor, () -> loadShareholders(open(shareholderCsvResource))),
+					submit(executor, () -> loadSecurities(open(securityCsvResource)))
+				)
+			);
+			Future<Void> positions = submit(executor, () -> loadPositions(open(positionCsvResource)));
+			loadOrderBook(open(orderBookCsvResource), executor);
+			await(List.of(positions));
+		}
+		log.info(String.format("Persistent data loaded in %.1f ms", (System.nanoTime() - start) / 1e6));
 	}
 
 	@PreDestroy
 	public void saveAll() throws Exception {
+		// with snapshots the state is kept by the final snapshot and the checkpoints before it, and restarts load
+		// those rather than these files, so they are not rewritten in full
+		if (snapshotStore.isEnabled()) {
+			return;
+		}
+
 		System.out.print("Saving persistent data ...");
 		saveBrokers();
 		saveShareholdersAndPositions();
 		saveSecuritiesAndOrderBooks();
+		// the saved data now holds everything journaled, so the journal starts over from it
+		requestJournal.reset();
 		System.out.println(", done!");
 	}
 
-	private void loadBrokers() throws Exception {
+	// the csv loaders take any reader, so the benchmarks can load generated files
+	public void loadBrokers(Reader reader) throws Exception {
 		brokerRepository.clear();
-		try (Reader reader = new FileReader(brokerCsvResource.getFile())) {
-			try (CSVReader csvReader = new CSVReaderBuilder(reader).withSkipLines(1).build()) {
-				String[] line;
-				while ((line = csvReader.readNext()) != null) {
-					brokerRepository.addBroker(
-						Broker
-							.builder()
-							.brokerId(Long.parseLong(line[0]))
-							.name(line[1])
-							.credit(Long.parseLong(line[0]))
-							.build()
-					);
-				}
+		try (CSVReader csvReader = new CSVReaderBuilder(reader).withSkipLines(1).build()) {
+			String[] line;
+			while ((line = csvReader.readNext()) != null) {
+				brokerRepository.addBroker(
+					Broker
+						.builder()
+						.brokerId(Long.parseLong(line[0]))
+						.name(line[1])
+						.credit(Long.parseLong(line[2]))
+						.build()
+				);
 			}
 		}
 		log.info("Brokers loaded");
 	}
 
-	private void loadShareholders() throws Exception {
+	public void loadShareholders(Reader reader) throws Exception {
 		shareholderRepository.clear();
-		try (Reader reader = new FileReader(shareholderCsvResource.getFile())) {
-			try (CSVReader csvReader = new CSVReaderBuilder(reader).withSkipLines(1).build()) {
-				String[] line;
-				while ((line = csvReader.readNext()) != null) {
-					shareholderRepository.addShareholder(
-						Shareholder.builder().shareholderId(Long.parseLong(line[0])).name(line[1]).build()
-					);
-				}
+		try (CSVReader csvReader = new CSVReaderBuilder(reader).withSkipLines(1).build()) {
+			String[] line;
+			while ((line = csvReader.readNext()) != null) {
+				shareholderRepository.addShareholder(
+					Shareholder.builder().shareholderId(Long.parseLong(line[0])).name(line[1]).build()
+				);
 			}
 		}
 		log.info("Shareholders loaded");
 	}
 
-	private void loadSecurities() throws Exception {
+	public void loadSecurities(Reader reader) throws Exception {
 		securityRepository.clear();
-		try (Reader reader = new FileReader(securityCsvResource.getFile())) {
-			try (CSVReader csvReader = new CSVReaderBuilder(reader).withSkipLines(1).build()) {
-				String[] line;
-				while ((line = csvReader.readNext()) != null) {
-					securityRepository.addSecurity(
-						Security
-							.builder()
-							.isin(line[0])
-							.tickSize(Integer.parseInt(line[1]))
-							.lotSize(Integer.parseInt(line[2]))
-							.build()
-					);
-				}
+		try (CSVReader csvReader = new CSVReaderBuilder(reader).withSkipLines(1).build()) {
+			String[] line;
+			while ((line = csvReader.readNext()) != null) {
+				securityRepository.addSecurity(
+					Security
+						.builder()
+						.isin(line[0])
+						.tickSize(Integer.parseInt(line[1]))
+						.lotSize(Integer.parseInt(line[2]))
+						.build()
+				);
 			}
 		}
 		log.info("Securities loaded");
 	}
 
-	private void loadPositions() throws Exception {
-		try (Reader reader = new FileReader(positionCsvResource.getFile())) {
-			try (CSVReader csvReader = new CSVReaderBuilder(reader).withSkipLines(1).build()) {
-				String[] line;
-				while ((line = csvReader.readNext()) != null) {
-					Shareholder shareholder = shareholderRepository.findShareholderById(Long.parseLong(line[0]));
-					Security security = securityRepository.findSecurityByIsin(line[1]);
-					shareholder.incPosition(security, Integer.parseInt(line[2]));
-				}
+	public void loadPositions(Reader reader) throws Exception {
+		try (CSVReader csvReader = new CSVReaderBuilder(reader).withSkipLines(1).build()) {
+			String[] line;
+			while ((line = csvReader.readNext()) != null) {
+				Shareholder shareholder = shareholderRepository.findShareholderById(Long.parseLong(line[0]));
+				Security security = securityRepository.findSecurityByIsin(line[1]);
+				shareholder.incPosition(security, Integer.parseInt(line[2]));
 			}
 		}
 		log.info("Positions loaded");
 	}
 
-	private void loadOrderBook() throws Exception {
-		LinkedList<Order> orders = new LinkedList<>();
-		try (Reader reader = new FileReader(orderBookCsvResource.getFile())) {
-			try (CSVReader csvReader = new CSVReaderBuilder(reader).withSkipLines(1).build()) {
-				String[] line;
-				while ((line = csvReader.readNext()) != null) {
-					Security security = securityRepository.findSecurityByIsin(line[1]);
-					Broker broker = brokerRepository.findBrokerById(Long.parseLong(line[6]));
-					Shareholder shareholder = shareholderRepository.findShareholderById(Long.parseLong(line[7]));				    //orderId,isin,side,quantity,minimumExecutionQuantity,price,brokerId,shareholderId,entryTime,peakSize,displayedQuantity
-    //0       1    2    3        4                        5     6        7             8         9        10
-					int peakSize = Integer.parseInt(line[9]);
-					Order order;
-					if (peakSize == 0) {
-						order =
-							new Order(
-								Long.parseLong(line[0]),
-								security,
-								Side.parse(line[2]),
-								Integer.parseInt(line[3]),
-								Integer.parseInt(line[4]),
-								Integer.parseInt(line[5]),
-								broker,
-								shareholder,
-								LocalDateTime.parse(line[8]),
-								OrderStatus.LOADING
-							);
-					} else {
-						order =
-							new IcebergOrder(
-								Long.parseLong(line[0]),
-								security,
-								Side.parse(line[2]),
-								Integer.parseInt(line[3]),
-								Integer.parseInt(line[4]),
-								Integer.parseInt(line[5]),
-								broker,
-								shareholder,
-								LocalDateTime.parse(line[8]),
-								Integer.parseInt(line[9]),
-								Integer.parseInt(line[10]),
-								OrderStatus.LOADING
-							);
-					}
-					orders.addFirst(order);
+	// the file is only split into the lines of each security while it is read; the lines of every security are
+	// parsed and built into its order book on a thread of their own, in file order, which is time priority order
+	public void loadOrderBook(Reader reader, ExecutorService executor) throws Exception {
+		Map<String, List<String>> linesByIsin = new HashMap<>();
+		try (BufferedReader lines = new BufferedReader(reader, 1 << 16)) {
+			lines.readLine();
+			String line;
+			while ((line = lines.readLine()) != null) {
+				if (!line.isBlank()) {
+					linesByIsin.computeIfAbsent(isinOf(line), isin -> new ArrayList<>()).add(line);
 				}
 			}
 		}
-		Iterator<Order> it = orders.descendingIterator();
-		while (it.hasNext()) {
-			Order order = it.next();
-			order.getSecurity().getOrderBook().enqueue(order);
-		}
+
+		List<Future<Void>> books = new ArrayList<>();
+		linesByIsin.forEach((isin, lines) ->
+			books.add(submit(executor, () -> loadOrders(securityRepository.findSecurityByIsin(isin), lines)))
+		);
+		await(books);
 		log.info("Order Book loaded");
 	}
 
+	private void loadOrders(Security security, List<String> lines) throws Exception {
+		//orderId,isin,side,quantity,minimumExecutionQuantity,price,brokerId,shareholderId,entryTime,peakSize,displayedQuantity
+		//0       1    2    3        4                        5     6        7             8         9        10
+		CSVParser parser = new CSVParser();
+		List<Order> orders = new ArrayList<>(lines.size());
+		for (String text : lines) {
+			String[] line = text.indexOf('"') < 0 ? text.split(",", -1) : parser.parseLine(text);
+			Broker broker = brokerRepository.findBrokerById(Long.parseLong(line[6]));
+			Shareholder shareholder = shareholderRepository.findShareholderById(Long.parseLong(line[7]));
+			int peakSize = Integer.parseInt(line[9]);
+			if (peakSize == 0) {
+				orders.add(
+					new Order(
+						Long.parseLong(line[0]),
+						security,
+						Side.parse(line[2]),
+						Integer.parseInt(line[3]),
+						Integer.parseInt(line[4]),
+						Integer.parseInt(line[5]),
+						broker,
+						shareholder,
+						LocalDateTime.parse(line[8]),
+						OrderStatus.LOADING
+					)
+				);
+			} else {
+				orders.add(
+					new IcebergOrder(
+						Long.parseLong(line[0]),
+						security,
+						Side.parse(line[2]),
+						Integer.parseInt(line[3]),
+						Integer.parseInt(line[4]),
+						Integer.parseInt(line[5]),
+						broker,
+						shareholder,
+						LocalDateTime.parse(line[8]),
+						peakSize,
+						Integer.parseInt(line[10]),
+						OrderStatus.LOADING
+					)
+				);
+			}
+		}
+		security.getOrderBook().enqueueAll(orders);
+	}
+
+	private static String isinOf(String line) {
+		int start = line.indexOf(',') + 1;
+		return line.substring(start, line.indexOf(',', start));
+	}
+
+	private static Reader open(Resource resource) throws IOException {
+		return Files.newBufferedReader(resource.getFile().toPath());
+	}
+
+	private interface LoadTask {
+		void run() throws Exception;
+	}
+
+	private static Future<Void> submit(ExecutorService executor, LoadTask task) {
+		return executor.submit(() -> {
+			task.run();
+			return null;
+		});
+	}
+
+	private static void await(List<Future<Void>> futures) throws Exception {
+		for (Future<Void> future : futures) {
+			try {
+				future.get();
+			} catch (ExecutionException ex) {
+				if (ex.getCause() instanceof Exception cause) {
+					throw cause;
+				}
+				throw ex;
+			}
+		}
+	}
+
 	private void saveBrokers() throws Exception {
 		try (PrintWriter writer = new PrintWriter(new FileWriter(brokerCsvResource.getFile()))) {
 			writer.println("brokerId,name,credit");
@@ -238,7 +340,7 @@ public class DataLoader {
 			securityWriter.println("isin,tickSize,lotSize");
 			try (PrintWriter orderBookWriter = new PrintWriter(new FileWriter(orderBookCsvResource.getFile()))) {
 				orderBookWriter.println(
-					"orderId,isin,side,quantity,price,brokerId,shareholderId,entryTime,status,peakSize,displayedQuantity"
+					"orderId,isin,side,quantity,minimumExecutionQuantity,price,brokerId,shareholderId,entryTime,peakSize,displayedQuantity"
 				);
 				for (Security security : securityRepository.allSecurities()) {
 					StringJoiner joiner = new StringJoiner(",");
@@ -265,11 +367,12 @@ public class DataLoader {
 			.add(String.valueOf(order.getOrderId()))
 			.add(order.getSecurity().getIsin())
 			.add(order.getSide().toString())
-			.add(String.valueOf(order.getQuantity()))
+			.add(String.valueOf(order.getTotalQuantity()))
+			.add(String.valueOf(order.getMinimumExecutionQuantity()))
 			.add(String.valueOf(order.getPrice()))
 			.add(String.valueOf(order.getBroker().getBrokerId()))
 			.add(String.valueOf(order.getShareholder().getShareholderId()))
-			.add(order.getEntryTimes().getFirst().toString());
+			.add(order.getEntryTime().toString());
 		if (order instanceof IcebergOrder icebergOrder) {
 			orderJoiner
 				.add(String.valueOf(icebergOrder.getPeakSize()))
@@ -0,0 +1,63 @@
+package ir.ramtung.tinyme.repository;
+
+import ir.ramtung.tinyme.domain.service.ApplicationServices;
+import ir.ramtung.tinyme.domain.service.OrderHandler;
+import ir.ramtung.tinyme.messaging.EventPublisher;
+import ir.ramtung.tinyme.messaging.event.Event;
+import ir.ramtung.tinyme.messaging.request.BaseRq;
+import jakarta.annotation.PostConstruct;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+// brings the repositories from the last saved data up to the last journaled request before any request is
+// received; the requests are handled again one by one in journal order, the rejected ones being rejected again, and
+// their events are not published again
+@Component
+@Profile("!test")
+@DependsOn("dataLoader")
+public class JournalRecovery {
+
+	private final Logger log = Logger.getLogger(this.getClass().getName());
+	private final RequestJournal requestJournal;
+	private final SnapshotStore snapshotStore;
+	private final OrderHandler replayHandler;
+
+	public JournalRecovery(RequestJournal requestJournal, SnapshotStore snapshotStore, ApplicationServices services) {
+		this.requestJournal = requestJournal;
+		this.snapshotStore = snapshotStore;
+		this.replayHandler = new OrderHandler(services, new EventPublisher(null, null, 0, 1) {
+			@Override
+			public void publish(Event event) {}
+		});
+	}
+
+	@PostConstruct
+	public void replay() throws Exception {
+		if (!requestJournal.isEnabled()) {
+			return;
+		}
+
+		long start = System.nanoTime();
+		int count = requestJournal.replay(snapshotStore.getLoadedJournalSegmentIndex(), this::handleRq);
+		long elapsedNanos = Math.max(System.nanoTime() - start, 1);
+		log.info(
+			String.format(
+				"Replayed %d journaled requests in %.1f ms (%.0f requests/s)",
+				count,
+				elapsedNanos / 1e6,
+				count * 1e9 / elapsedNanos
+			)
+		);
+	}
+
+	private void handleRq(BaseRq baseRq) {
+		try {
+			replayHandler.handleRq(baseRq);
+		} catch (RuntimeException ex) {
+			log.log(Level.SEVERE, "Failed to replay " + baseRq, ex);
+		}
+	}
+}
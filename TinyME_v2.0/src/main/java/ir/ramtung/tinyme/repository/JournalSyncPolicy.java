@@ -0,0 +1,10 @@
+package ir.ramtung.tinyme.repository;
+
+public enum JournalSyncPolicy {
+	// leaves writing the mapped pages back to the operating system
+	NONE,
+	// a flusher thread syncs whatever was appended in the last group commit interval
+	GROUP,
+	// syncs each request before it is matched
+	EVERY_REQUEST,
+}
@@ -0,0 +1,311 @@
+package ir.ramtung.tinyme.repository;
+
+import ir.ramtung.tinyme.messaging.BinaryCodec;
+import ir.ramtung.tinyme.messaging.request.BaseRq;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// an append-only log of the requests received since the persistent data was last saved, kept in memory-mapped
+// segment files; each record is its length, the crc32 of its payload and the request in the BinaryCodec layout,
+// a zero length marks the end of the journal and a length of -1 continues it in the next segment; segments are
+// numbered on across resets, so a segment number keeps pointing at the same place in the journal
+@Component
+public class RequestJournal {
+
+	private static final int HEADER_SIZE = 2 * Integer.BYTES;
+	private static final int NEXT_SEGMENT = -1;
+
+	private final Logger log = Logger.getLogger(this.getClass().getName());
+	private final Path directory;
+	private final int segmentSize;
+	private final JournalSyncPolicy syncPolicy;
+	private final long groupCommitNanos;
+	private final CRC32 crc = new CRC32();
+	private ByteBuffer scratch = BinaryCodec.newBuffer(1024);
+	private int firstSegmentIndex;
+	private int segmentIndex;
+	private volatile MappedByteBuffer segment;
+	private volatile boolean unsynced;
+	private Thread flusher;
+	private volatile boolean running;
+
+	public RequestJournal(
+		@Value("${journalDirectory:}") String journalDirectory,
+		@Value("${journalSegmentSize:67108864}") int segmentSize,
+		@Value("${journalSyncPolicy:GROUP}") JournalSyncPolicy syncPolicy,
+		@Value("${journalGroupCommitMillis:2}") long groupCommitMillis
+	) throws IOException {
+		if (segmentSize <= HEADER_SIZE) {
+			throw new IllegalArgumentException("journalSegmentSize must be larger than " + HEADER_SIZE);
+		}
+		this.directory = journalDirectory.isBlank() ? null : Path.of(journalDirectory);
+		this.segmentSize = segmentSize;
+		this.syncPolicy = syncPolicy;
+		this.groupCommitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(groupCommitMillis, 1));
+		if (directory == null) {
+			return;
+		}
+
+		Files.createDirectories(directory);
+		openAtEnd();
+		if (syncPolicy == JournalSyncPolicy.GROUP) {
+			running = true;
+			flusher = new Thread(this::syncPeriodically, "request-journal-flusher");
+			flusher.setDaemon(true);
+			flusher.start();
+		}
+	}
+
+	public boolean isEnabled() {
+		return directory != null;
+	}
+
+	// the request is in the journal when this returns, and on disk too under EVERY_REQUEST
+	public synchronized void append(BaseRq baseRq) {
+		ByteBuffer payload = encode(baseRq);
+		int length = payload.remaining();
+		if (HEADER_SIZE + length > segmentSize) {
+			throw new IllegalArgumentException("Request does not fit in a journal segment: " + baseRq);
+		}
+		if (segment.remaining() < HEADER_SIZE + length) {
+			rollOver();
+		}
+
+		int start = segment.position();
+		crc.reset();
+		crc.update(payload.duplicate());
+		segment.putInt(start + Integer.BYTES, (int) crc.getValue());
+		segment.position(start + HEADER_SIZE);
+		segment.put(payload);
+		// the length goes in last so a reader never takes a half-written record for a whole one
+		segment.putInt(start, length);
+
+		if (syncPolicy == JournalSyncPolicy.EVERY_REQUEST) {
+			segment.force(start, HEADER_SIZE + length);
+		} else {
+			unsynced = true;
+		}
+	}
+
+	// feeds the journaled requests to the consumer in the order they were appended
+	public int replay(Consumer<BaseRq> consumer) throws IOException {
+		return replay(0, consumer);
+	}
+
+	public synchronized int replay(int fromSegmentIndex, Consumer<BaseRq> consumer) throws IOException {
+		int count = 0;
+		for (int index = Math.max(fromSegmentIndex, firstSegmentIndex); index <= segmentIndex; index++) {
+			ByteBuffer records = index == segmentIndex ? segment.duplicate().flip() : map(index, false);
+			count += readRecords(records.order(ByteOrder.LITTLE_ENDIAN), consumer);
+		}
+		return count;
+	}
+
+	// starts an empty journal, once everything journaled so far is saved elsewhere
+	public synchronized void reset() throws IOException {
+		if (!isEnabled()) {
+			return;
+		}
+
+		segment = null;
+		for (int index = firstSegmentIndex; index <= segmentIndex; index++) {
+			Files.deleteIfExists(segmentPath(index));
+		}
+		firstSegmentIndex = ++segmentIndex;
+		segment = map(segmentIndex, true);
+		unsynced = false;
+	}
+
+	// continues the journal in a new segment, so that the requests appended from now on can be replayed on their
+	// own from the returned segment number
+	public synchronized int startNewSegment() {
+		if (segment.position() > 0) {
+			rollOver();
+		}
+		return segmentIndex;
+	}
+
+	// drops the segments whose requests are all saved elsewhere
+	public synchronized void deleteSegmentsBefore(int index) throws IOException {
+		for (; firstSegmentIndex < Math.min(index, segmentIndex); firstSegmentIndex++) {
+			Files.deleteIfExists(segmentPath(firstSegmentIndex));
+		}
+	}
+
+	@PreDestroy
+	public void close() throws InterruptedException {
+		if (flusher != null) {
+			running = false;
+			flusher.join();
+		}
+		sync();
+	}
+
+	private ByteBuffer encode(BaseRq baseRq) {
+		while (true) {
+			scratch.clear();
+			try {
+				BinaryCodec.encode(baseRq, scratch);
+				return scratch.flip();
+			} catch (BufferOverflowException ex) {
+				scratch = BinaryCodec.newBuffer(scratch.capacity() * 2);
+			}
+		}
+	}
+
+	private void rollOver() {
+		if (segment.remaining() >= Integer.BYTES) {
+			segment.putInt(segment.position(), NEXT_SEGMENT);
+		}
+		segment.force();
+		try {
+			segment = map(++segmentIndex, true);
+		} catch (IOException ex) {
+			throw new UncheckedIOException("Could not open journal segment " + segmentIndex, ex);
+		}
+	}
+
+	// reads the whole records up to the end marker, or up to a torn or corrupt record left by a crash
+	private int readRecords(ByteBuffer records, Consumer<BaseRq> consumer) {
+		int count = 0;
+		while (records.remaining() >= HEADER_SIZE) {
+			int start = records.position();
+			int length = records.getInt();
+			if (length <= 0 || length > records.remaining() - Integer.BYTES) {
+				records.position(start);
+				break;
+			}
+
+			int checksum = records.getInt();
+			ByteBuffer payload = records.slice(records.position(), length).order(ByteOrder.LITTLE_ENDIAN);
+			crc.reset();
+			crc.update(payload.duplicate());
+			if ((int) crc.getValue() != checksum) {
+				log.warning("Journal record at offset " + start + " is corrupt, ignoring the rest of the journal");
+				records.position(start);
+				break;
+			}
+
+			if (consumer != null) {
+				consumer.accept((BaseRq) BinaryCodec.decode(payload));
+			}
+			records.position(records.position() + length);
+			count++;
+		}
+		return count;
+	}
+
+	private boolean continuesInNextSegment(ByteBuffer records) {
+		return records.remaining() < Integer.BYTES || records.getInt(records.position()) == NEXT_SEGMENT;
+	}
+
+	// positions the writer after the last whole record and drops whatever a crash left after it
+	private void openAtEnd() throws IOException {
+		try (var paths = Files.list(directory)) {
+			firstSegmentIndex = paths
+				.map(path -> path.getFileName().toString())
+				.filter(name -> name.matches("requests-\\d+\\.wal"))
+				.mapToInt(name -> Integer.parseInt(name.substring("requests-".length(), name.length() - ".wal".length())))
+				.min()
+				.orElse(0);
+		}
+		segmentIndex = firstSegmentIndex;
+		while (true) {
+			MappedByteBuffer records = map(segmentIndex, true);
+			records.order(ByteOrder.LITTLE_ENDIAN);
+			readRecords(records, null);
+			if (continuesInNextSegment(records) && Files.exists(segmentPath(segmentIndex + 1))) {
+				segmentIndex++;
+				continue;
+			}
+
+			if (continuesInNextSegment(records)) {
+				segment = map(++segmentIndex, true);
+			} else {
+				zeroFrom(records, records.position());
+				segment = records;
+			}
+			break;
+		}
+		for (int index = segmentIndex + 1; Files.exists(segmentPath(index)); index++) {
+			Files.delete(segmentPath(index));
+		}
+	}
+
+	// only bytes that are not zero yet are written, so the untouched rest of a segment is not paged in dirty
+	private static void zeroFrom(MappedByteBuffer records, int offset) {
+		int last = -1;
+		for (int index = offset; index < records.limit(); index++) {
+			if (records.get(index) != 0) {
+				records.put(index, (byte) 0);
+				last = index;
+			}
+		}
+		if (last >= 0) {
+			records.force(offset, last + 1 - offset);
+		}
+	}
+
+	private MappedByteBuffer map(int index, boolean writable) throws IOException {
+		Path path = segmentPath(index);
+		if (!writable) {
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+				return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			}
+		}
+
+		try (
+			FileChannel channel = FileChannel.open(
+				path,
+				StandardOpenOption.CREATE,
+				StandardOpenOption.READ,
+				StandardOpenOption.WRITE
+			)
+		) {
+			MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+			mapped.order(ByteOrder.LITTLE_ENDIAN);
+			return mapped;
+		}
+	}
+
+	private Path segmentPath(int index) {
+		return directory.resolve(String.format("requests-%05d.wal", index));
+	}
+
+	private void syncPeriodically() {
+		while (running) {
+			LockSupport.parkNanos(groupCommitNanos);
+			try {
+				sync();
+			} catch (RuntimeException ex) {
+				log.log(Level.SEVERE, "Failed to sync the request journal", ex);
+			}
+		}
+	}
+
+	// forcing a mapped buffer needs no lock, so appends go on while the pages of a group are written out
+	private void sync() {
+		MappedByteBuffer current = segment;
+		if (unsynced && current != null) {
+			unsynced = false;
+			current.force();
+		}
+	}
+}
@@ -2,7 +2,11 @@ package ir.ramtung.tinyme.repository;
 
 import ir.ramtung.tinyme.domain.entity.Security;
 import ir.ramtung.tinyme.repository.exception.NotFoundException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -10,6 +14,9 @@ public class SecurityRepository {
 
 	private final HashMap<String, Security> securityByIsin = new HashMap<>();
 
+	// filled by the dirty marks of the securities, see takeChangedSecurities
+	private final Queue<Security> changedSecurities = new ConcurrentLinkedQueue<>();
+
 	public Security findSecurityByIsin(String isin) {
 		Security security = securityByIsin.get(isin);
 		if (security == null) {
@@ -30,13 +37,25 @@ public class SecurityRepository {
 
 	public void addSecurity(Security security) {
 		securityByIsin.put(security.getIsin(), security);
+		security.getDirtyMark().trackWith(changedSecurities::add);
 	}
 
 	public void clear() {
 		securityByIsin.clear();
+		changedSecurities.clear();
 	}
 
 	Iterable<? extends Security> allSecurities() {
 		return securityByIsin.values();
 	}
+
+	// the securities changed since the last call, which count as clean again from now on
+	List<Security> takeChangedSecurities() {
+		List<Security> changed = new ArrayList<>();
+		for (Security security; (security = changedSecurities.poll()) != null; ) {
+			security.getDirtyMark().clear();
+			changed.add(security);
+		}
+		return changed;
+	}
 }
@@ -2,7 +2,11 @@ package ir.ramtung.tinyme.repository;
 
 import ir.ramtung.tinyme.domain.entity.Shareholder;
 import ir.ramtung.tinyme.repository.exception.NotFoundException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -10,6 +14,8 @@ public class ShareholderRepository {
 
 	private final HashMap<Long, Shareholder> shareholderById = new HashMap<>();
 
+	private final Queue<Shareholder> changedShareholders = new ConcurrentLinkedQueue<>();
+
 	public Shareholder findShareholderById(long shareholderId) {
 		Shareholder shareholder = shareholderById.get(shareholderId);
 		if (shareholder == null) {
@@ -30,13 +36,24 @@ public class ShareholderRepository {
 
 	public void addShareholder(Shareholder shareholder) {
 		shareholderById.put(shareholder.getShareholderId(), shareholder);
+		shareholder.getDirtyMark().trackWith(changedShareholders::add);
 	}
 
 	public void clear() {
 		shareholderById.clear();
+		changedShareholders.clear();
 	}
 
 	Iterable<? extends Shareholder> allShareholders() {
 		return shareholderById.values();
 	}
+
+	List<Shareholder> takeChangedShareholders() {
+		List<Shareholder> changed = new ArrayList<>();
+		for (Shareholder shareholder; (shareholder = changedShareholders.poll()) != null; ) {
+			shareholder.getDirtyMark().clear();
+			changed.add(shareholder);
+		}
+		return changed;
+	}
 }
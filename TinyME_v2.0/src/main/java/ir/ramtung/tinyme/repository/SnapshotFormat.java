@@ -0,0 +1,305 @@
+package ir.ramtung.tinyme.repository;
+
+import ir.ramtung.tinyme.domain.entity.*;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// the layout of snapshot and checkpoint files: a header with the kind of file and the journal segment it is
+// followed by, then brokers, securities, shareholders with their positions, and last the four queues of the order
+// book of every security in the file; a snapshot holds every entity, a checkpoint only those changed since the
+// file before it, and reading either puts its entities in place of the ones of the same id; queues are written in
+// priority order and bulk enqueued back in the same order, which gives the loaded orders their old priorities
+final class SnapshotFormat {
+
+	static final int MAGIC = 0x544d5353;
+	static final short VERSION = 2;
+
+	static final byte SNAPSHOT = 0;
+	static final byte CHECKPOINT = 1;
+
+	private static final byte LIMIT_ORDER = 0;
+	private static final byte ICEBERG_ORDER = 1;
+	private static final byte STOP_LIMIT_ORDER = 2;
+
+	private static final long NULL_TIME = Long.MIN_VALUE;
+	private static final Side[] SIDES = Side.values();
+	private static final SecurityState[] SECURITY_STATES = SecurityState.values();
+
+	private SnapshotFormat() {}
+
+	static void write(
+		DataOutput out,
+		byte kind,
+		int journalSegmentIndex,
+		Collection<Broker> brokers,
+		Collection<Security> securities,
+		Collection<Shareholder> shareholders
+	) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeShort(VERSION);
+		out.writeByte(kind);
+		out.writeInt(journalSegmentIndex);
+
+		out.writeInt(brokers.size());
+		for (Broker broker : brokers) {
+			out.writeLong(broker.getBrokerId());
+			writeString(out, broker.getName());
+			out.writeLong(broker.getCredit());
+			out.writeLong(broker.getReservedCredit());
+		}
+
+		out.writeInt(securities.size());
+		for (Security security : securities) {
+			writeString(out, security.getIsin());
+			out.writeInt(security.getTickSize());
+			out.writeInt(security.getLotSize());
+			out.writeByte(security.getState().ordinal());
+			out.writeInt(security.getLastTradePrice());
+		}
+
+		out.writeInt(shareholders.size());
+		for (Shareholder shareholder : shareholders) {
+			out.writeLong(shareholder.getShareholderId());
+			writeString(out, shareholder.getName());
+			Map<Security, Integer> positions = Map.copyOf(shareholder.getPositions());
+			out.writeInt(positions.size());
+			for (var position : positions.entrySet()) {
+				writeString(out, position.getKey().getIsin());
+				out.writeInt(position.getValue());
+			}
+		}
+
+		for (Security security : securities) {
+			OrderBook orderBook = security.getOrderBook();
+			writeOrders(out, orderBook.getBuyQueue());
+			writeOrders(out, orderBook.getSellQueue());
+			writeOrders(out, orderBook.getStopLimitOrderBuyQueue());
+			writeOrders(out, orderBook.getStopLimitOrderSellQueue());
+		}
+	}
+
+	static void writeSnapshot(
+		DataOutput out,
+		int journalSegmentIndex,
+		BrokerRepository brokerRepository,
+		ShareholderRepository shareholderRepository,
+		SecurityRepository securityRepository
+	) throws IOException {
+		write(
+			out,
+			SNAPSHOT,
+			journalSegmentIndex,
+			listOf(brokerRepository.allBrokers()),
+			listOf(securityRepository.allSecurities()),
+			listOf(shareholderRepository.allShareholders())
+		);
+	}
+
+	// puts the entities of the file in the repositories, which a snapshot clears first, and returns the journal
+	// segment to replay from
+	static int read(
+		DataInput in,
+		BrokerRepository brokerRepository,
+		ShareholderRepository shareholderRepository,
+		SecurityRepository securityRepository
+	) throws IOException {
+		if (in.readInt() != MAGIC) {
+			throw new IOException("Not a snapshot file");
+		}
+		short version = in.readShort();
+		if (version != VERSION) {
+			throw new IOException("Unsupported snapshot version " + version);
+		}
+		byte kind = in.readByte();
+		int journalSegmentIndex = in.readInt();
+
+		if (kind == SNAPSHOT) {
+			brokerRepository.clear();
+			shareholderRepository.clear();
+			securityRepository.clear();
+		}
+
+		int brokerCount = in.readInt();
+		for (int i = 0; i < brokerCount; i++) {
+			long brokerId = in.readLong();
+			String name = readString(in);
+			Broker broker = brokerRepository.isThereBrokerWithId(brokerId)
+				? brokerRepository.findBrokerById(brokerId)
+				: new Broker(brokerId, name, 0);
+			broker.restoreCredit(in.readLong(), in.readLong());
+			brokerRepository.addBroker(broker);
+		}
+
+		int securityCount = in.readInt();
+		List<Security> securities = new ArrayList<>(securityCount);
+		for (int i = 0; i < securityCount; i++) {
+			String isin = readString(in);
+			int tickSize = in.readInt();
+			int lotSize = in.readInt();
+			Security security;
+			if (securityRepository.isThereSecurityWithIsin(isin)) {
+				security = securityRepository.findSecurityByIsin(isin);
+				security.getOrderBook().clear();
+			} else {
+				security = Security.builder().isin(isin).tickSize(tickSize).lotSize(lotSize).build();
+				securityRepository.addSecurity(security);
+			}
+			security.restore(SECURITY_STATES[in.readByte()], in.readInt());
+			securities.add(security);
+		}
+
+		int shareholderCount = in.readInt();
+		for (int i = 0; i < shareholderCount; i++) {
+			long shareholderId = in.readLong();
+			String name = readString(in);
+			Shareholder shareholder = shareholderRepository.isThereShareholderWithId(shareholderId)
+				? shareholderRepository.findShareholderById(shareholderId)
+				: Shareholder.builder().shareholderId(shareholderId).name(name).build();
+			int positionCount = in.readInt();
+			Map<Security, Integer> positions = new HashMap<>();
+			for (int j = 0; j < positionCount; j++) {
+				positions.put(securityRepository.findSecurityByIsin(readString(in)), in.readInt());
+			}
+			shareholder.restorePositions(positions);
+			shareholderRepository.addShareholder(shareholder);
+		}
+
+		for (Security security : securities) {
+			List<Order> orders = new ArrayList<>();
+			for (int queue = 0; queue < 4; queue++) {
+				readOrders(in, security, brokerRepository, shareholderRepository, orders);
+			}
+			security.getOrderBook().enqueueAll(orders);
+		}
+		return journalSegmentIndex;
+	}
+
+	private static void writeOrders(DataOutput out, List<Order> orders) throws IOException {
+		out.writeInt(orders.size());
+		for (Order order : orders) {
+			byte kind = switch (order) {
+				case IcebergOrder ignored -> ICEBERG_ORDER;
+				case StopLimitOrder ignored -> STOP_LIMIT_ORDER;
+				default -> LIMIT_ORDER;
+			};
+			out.writeByte(kind);
+			out.writeLong(order.getOrderId());
+			out.writeByte(order.getSide().ordinal());
+			out.writeInt(order.getTotalQuantity());
+			out.writeInt(order.getMinimumExecutionQuantity());
+			out.writeInt(order.getPrice());
+			out.writeLong(order.getBroker().getBrokerId());
+			out.writeLong(order.getShareholder().getShareholderId());
+			writeTime(out, order.getEntryTime());
+			if (order instanceof IcebergOrder icebergOrder) {
+				out.writeInt(icebergOrder.getPeakSize());
+				out.writeInt(icebergOrder.getDisplayedQuantity());
+			} else if (order instanceof StopLimitOrder stopLimitOrder) {
+				out.writeInt(stopLimitOrder.getStopPrice());
+				out.writeLong(stopLimitOrder.getRequestId());
+			}
+		}
+	}
+
+	private static void readOrders(
+		DataInput in,
+		Security security,
+		BrokerRepository brokerRepository,
+		ShareholderRepository shareholderRepository,
+		List<Order> orders
+	) throws IOException {
+		int orderCount = in.readInt();
+		for (int i = 0; i < orderCount; i++) {
+			byte kind = in.readByte();
+			long orderId = in.readLong();
+			Side side = SIDES[in.readByte()];
+			int quantity = in.readInt();
+			int minimumExecutionQuantity = in.readInt();
+			int price = in.readInt();
+			Broker broker = brokerRepository.findBrokerById(in.readLong());
+			Shareholder shareholder = shareholderRepository.findShareholderById(in.readLong());
+			LocalDateTime entryTime = readTime(in);
+			orders.add(switch (kind) {
+				case ICEBERG_ORDER -> new IcebergOrder(
+					orderId,
+					security,
+					side,
+					quantity,
+					minimumExecutionQuantity,
+					price,
+					broker,
+					shareholder,
+					entryTime,
+					in.readInt(),
+					in.readInt(),
+					OrderStatus.LOADING
+				);
+				case STOP_LIMIT_ORDER -> new StopLimitOrder(
+					orderId,
+					security,
+					side,
+					quantity,
+					price,
+					broker,
+					shareholder,
+					entryTime,
+					in.readInt(),
+					in.readLong(),
+					OrderStatus.LOADING
+				);
+				default -> new Order(
+					orderId,
+					security,
+					side,
+					quantity,
+					minimumExecutionQuantity,
+					price,
+					broker,
+					shareholder,
+					entryTime,
+					OrderStatus.LOADING
+				);
+			});
+		}
+	}
+
+	private static <T> List<T> listOf(Iterable<? extends T> items) {
+		List<T> list = new ArrayList<>();
+		items.forEach(list::add);
+		return list;
+	}
+
+	private static void writeString(DataOutput out, String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	private static String readString(DataInput in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+	private static void writeTime(DataOutput out, LocalDateTime time) throws IOException {
+		if (time == null) {
+			out.writeLong(NULL_TIME);
+			return;
+		}
+
+		out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+		out.writeInt(time.getNano());
+	}
+
+	private static LocalDateTime readTime(DataInput in) throws IOException {
+		long epochSecond = in.readLong();
+		return epochSecond == NULL_TIME ? null : LocalDateTime.ofEpochSecond(epochSecond, in.readInt(), ZoneOffset.UTC);
+	}
+}
@@ -0,0 +1,222 @@
+package ir.ramtung.tinyme.repository;
+
+import ir.ramtung.tinyme.domain.entity.Broker;
+import ir.ramtung.tinyme.domain.entity.Security;
+import ir.ramtung.tinyme.domain.entity.Shareholder;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.IntSupplier;
+import java.util.logging.Logger;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// keeps the newest snapshots of the repositories in snapshotDirectory, and the checkpoints taken since the newest
+// one; a checkpoint holds only the entities changed since the file before it, so its cost follows the activity
+// rather than the size of the state; every file is first written to a temporary file and synced, then renamed into
+// place, so a crash never leaves a half-written file to be loaded
+@Component
+public class SnapshotStore {
+
+	private static final int KEPT_SNAPSHOTS = 2;
+	private static final String SNAPSHOT_PREFIX = "snapshot-";
+	private static final String CHECKPOINT_PREFIX = "checkpoint-";
+	private static final String SUFFIX = ".bin";
+
+	public record Capture(boolean checkpoint, int journalSegmentIndex, byte[] data) {}
+
+	private final Logger log = Logger.getLogger(this.getClass().getName());
+	private final Path directory;
+	private final BrokerRepository brokerRepository;
+	private final ShareholderRepository shareholderRepository;
+	private final SecurityRepository securityRepository;
+
+	// the journal segment the last loaded file is followed by, 0 when nothing was loaded
+	@Getter
+	private int loadedJournalSegmentIndex;
+
+	public SnapshotStore(
+		@Value("${snapshotDirectory:}") String snapshotDirectory,
+		BrokerRepository brokerRepository,
+		ShareholderRepository shareholderRepository,
+		SecurityRepository securityRepository
+	) {
+		this.directory = snapshotDirectory.isBlank() ? null : Path.of(snapshotDirectory);
+		this.brokerRepository = brokerRepository;
+		this.shareholderRepository = shareholderRepository;
+		this.securityRepository = securityRepository;
+	}
+
+	public boolean isEnabled() {
+		return directory != null;
+	}
+
+	// the caller makes sure nothing changes the repositories while they are captured
+	public Capture captureAll(int journalSegmentIndex) {
+		discardChanges();
+		return new Capture(
+			false,
+			journalSegmentIndex,
+			serialize(out ->
+				SnapshotFormat.writeSnapshot(
+					out,
+					journalSegmentIndex,
+					brokerRepository,
+					shareholderRepository,
+					securityRepository
+				)
+			)
+		);
+	}
+
+	// captures the entities changed since the last capture, or returns null when nothing changed; the journal
+	// segment is only asked for when there is something to capture
+	public Capture captureChanges(IntSupplier journalSegmentIndex) {
+		List<Broker> brokers = brokerRepository.takeChangedBrokers();
+		List<Security> securities = securityRepository.takeChangedSecurities();
+		List<Shareholder> shareholders = shareholderRepository.takeChangedShareholders();
+		if (brokers.isEmpty() && securities.isEmpty() && shareholders.isEmpty()) {
+			return null;
+		}
+
+		int segmentIndex = journalSegmentIndex.getAsInt();
+		return new Capture(
+			true,
+			segmentIndex,
+			serialize(out ->
+				SnapshotFormat.write(out, SnapshotFormat.CHECKPOINT, segmentIndex, brokers, securities, shareholders)
+			)
+		);
+	}
+
+	public synchronized void save(Capture capture) throws IOException {
+		Files.createDirectories(directory);
+		List<Path> snapshots = list(SNAPSHOT_PREFIX);
+		List<Path> checkpoints = list(CHECKPOINT_PREFIX);
+		long sequence = Math.max(lastSequence(snapshots), lastSequence(checkpoints)) + 1;
+		String prefix = capture.checkpoint() ? CHECKPOINT_PREFIX : SNAPSHOT_PREFIX;
+		Path target = directory.resolve(String.format("%s%019d%s", prefix, sequence, SUFFIX));
+		Path temporary = directory.resolve(target.getFileName() + ".tmp");
+
+		try (
+			FileChannel channel = FileChannel.open(
+				temporary,
+				StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.WRITE
+			)
+		) {
+			ByteBuffer data = ByteBuffer.wrap(capture.data());
+			while (data.hasRemaining()) {
+				channel.write(data);
+			}
+			channel.force(true);
+		}
+		Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+		if (capture.checkpoint()) {
+			return;
+		}
+
+		// the new snapshot holds whatever the checkpoints before it did
+		for (Path checkpoint : checkpoints) {
+			Files.deleteIfExists(checkpoint);
+		}
+		for (int i = 0; i < snapshots.size() + 1 - KEPT_SNAPSHOTS; i++) {
+			Files.deleteIfExists(snapshots.get(i));
+		}
+	}
+
+	// fills the repositories from the newest snapshot in one pass and applies the checkpoints taken after it;
+	// returns false when there is no snapshot to start from
+	public boolean loadNewest() throws IOException {
+		if (!isEnabled() || !Files.isDirectory(directory)) {
+			return false;
+		}
+		List<Path> snapshots = list(SNAPSHOT_PREFIX);
+		if (snapshots.isEmpty()) {
+			return false;
+		}
+
+		Path newest = snapshots.getLast();
+		load(newest);
+		loadCheckpointsAfter(sequenceOf(newest));
+		return true;
+	}
+
+	// applies the checkpoints taken since the csv files were loaded, before any snapshot was
+	public void loadCheckpoints() throws IOException {
+		if (isEnabled() && Files.isDirectory(directory)) {
+			loadCheckpointsAfter(0);
+		}
+	}
+
+	private void loadCheckpointsAfter(long sequence) throws IOException {
+		for (Path checkpoint : list(CHECKPOINT_PREFIX)) {
+			if (sequenceOf(checkpoint) > sequence) {
+				load(checkpoint);
+			}
+		}
+		// what was just loaded is already saved
+		discardChanges();
+	}
+
+	private void load(Path file) throws IOException {
+		long start = System.nanoTime();
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+			loadedJournalSegmentIndex = SnapshotFormat.read(in, brokerRepository, shareholderRepository, securityRepository);
+		}
+		log.info(String.format("Loaded %s in %.1f ms", file.getFileName(), (System.nanoTime() - start) / 1e6));
+	}
+
+	private void discardChanges() {
+		brokerRepository.takeChangedBrokers();
+		securityRepository.takeChangedSecurities();
+		shareholderRepository.takeChangedShareholders();
+	}
+
+	private interface Writing {
+		void writeTo(DataOutputStream out) throws IOException;
+	}
+
+	private static byte[] serialize(Writing writing) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 16);
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			writing.writeTo(out);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		return bytes.toByteArray();
+	}
+
+	private List<Path> list(String prefix) throws IOException {
+		try (var paths = Files.list(directory)) {
+			return paths
+				.filter(path -> {
+					String name = path.getFileName().toString();
+					return name.startsWith(prefix) && name.endsWith(SUFFIX);
+				})
+				.sorted()
+				.toList();
+		}
+	}
+
+	private static long lastSequence(List<Path> files) {
+		return files.isEmpty() ? 0 : sequenceOf(files.getLast());
+	}
+
+	private static long sequenceOf(Path file) {
+		String name = file.getFileName().toString();
+		return Long.parseLong(name.substring(name.indexOf('-') + 1, name.length() - SUFFIX.length()));
+	}
+}
@@ -0,0 +1,149 @@
+package ir.ramtung.tinyme.repository;
+
+import ir.ramtung.tinyme.domain.service.MatchingShards;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// takes a snapshot every snapshotIntervalSeconds and once more on shutdown, and a checkpoint of the entities changed
+// since every checkpointIntervalSeconds in between; matching is paused only while the repositories are serialized
+// in memory and the journal moves to a new segment, the file is written after that on the snapshot thread, and the
+// journal segments the file covers are dropped once it is on disk
+@Component
+public class SnapshotWriter {
+
+	private final Logger log = Logger.getLogger(this.getClass().getName());
+	private final SnapshotStore snapshotStore;
+	private final MatchingShards matchingShards;
+	private final RequestJournal requestJournal;
+	private final long intervalSeconds;
+	private final long checkpointIntervalSeconds;
+	private ScheduledExecutorService scheduler;
+	// a failed snapshot or checkpoint loses the changes it took, so the next checkpoint is a whole snapshot instead;
+	// shutdown writes its snapshot from a thread other than the scheduler's
+	private volatile boolean snapshotDue;
+
+	public SnapshotWriter(
+		SnapshotStore snapshotStore,
+		MatchingShards matchingShards,
+		RequestJournal requestJournal,
+		@Value("${snapshotIntervalSeconds:60}") long intervalSeconds,
+		@Value("${checkpointIntervalSeconds:0}") long checkpointIntervalSeconds
+	) {
+		this.snapshotStore = snapshotStore;
+		this.matchingShards = matchingShards;
+		this.requestJournal = requestJournal;
+		this.intervalSeconds = intervalSeconds;
+		this.checkpointIntervalSeconds = checkpointIntervalSeconds;
+	}
+
+	@PostConstruct
+	public void start() {
+		if (!snapshotStore.isEnabled() || (intervalSeconds <= 0 && checkpointIntervalSeconds <= 0)) {
+			return;
+		}
+
+		scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "snapshot-writer");
+			thread.setDaemon(true);
+			return thread;
+		});
+		if (intervalSeconds > 0) {
+			scheduler.scheduleWithFixedDelay(
+				() -> {
+					try {
+						writeSnapshot();
+					} catch (Exception ex) {
+						log.log(Level.SEVERE, "Failed to write a snapshot", ex);
+					}
+				},
+				intervalSeconds,
+				intervalSeconds,
+				TimeUnit.SECONDS
+			);
+		}
+		if (checkpointIntervalSeconds > 0) {
+			scheduler.scheduleWithFixedDelay(
+				() -> {
+					try {
+						writeCheckpoint();
+					} catch (Exception ex) {
+						snapshotDue = true;
+						log.log(Level.SEVERE, "Failed to write a checkpoint", ex);
+					}
+				},
+				checkpointIntervalSeconds,
+				checkpointIntervalSeconds,
+				TimeUnit.SECONDS
+			);
+		}
+	}
+
+	public void writeSnapshot() throws Exception {
+		// the capture takes every change, so until it is saved no checkpoint can stand in for it
+		snapshotDue = true;
+		long start = System.nanoTime();
+		SnapshotStore.Capture capture = matchingShards.callWhilePaused(() ->
+			snapshotStore.captureAll(newJournalSegment())
+		);
+		long pausedNanos = System.nanoTime() - start;
+
+		save(capture, start, pausedNanos);
+		snapshotDue = false;
+	}
+
+	public void writeCheckpoint() throws Exception {
+		if (snapshotDue) {
+			writeSnapshot();
+			return;
+		}
+
+		long start = System.nanoTime();
+		SnapshotStore.Capture capture = matchingShards.callWhilePaused(() ->
+			snapshotStore.captureChanges(this::newJournalSegment)
+		);
+		long pausedNanos = System.nanoTime() - start;
+		if (capture != null) {
+			save(capture, start, pausedNanos);
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() throws Exception {
+		if (!snapshotStore.isEnabled()) {
+			return;
+		}
+
+		if (scheduler != null) {
+			scheduler.shutdown();
+			scheduler.awaitTermination(1, TimeUnit.MINUTES);
+		}
+		writeSnapshot();
+	}
+
+	private int newJournalSegment() {
+		return requestJournal.isEnabled() ? requestJournal.startNewSegment() : 0;
+	}
+
+	private void save(SnapshotStore.Capture capture, long start, long pausedNanos) throws Exception {
+		snapshotStore.save(capture);
+		if (requestJournal.isEnabled()) {
+			requestJournal.deleteSegmentsBefore(capture.journalSegmentIndex());
+		}
+		log.info(
+			String.format(
+				"Wrote a %s of %d bytes in %.1f ms, matching paused for %.1f ms",
+				capture.checkpoint() ? "checkpoint" : "snapshot",
+				capture.data().length,
+				(System.nanoTime() - start) / 1e6,
+				pausedNanos / 1e6
+			)
+		);
+	}
+}
@@ -4,9 +4,11 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import ir.ramtung.tinyme.config.MockedJMSTestConfig;
 import ir.ramtung.tinyme.domain.entity.*;
+import ir.ramtung.tinyme.domain.entity.stats.AuctionStats;
 import ir.ramtung.tinyme.domain.service.Matcher;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -78,4 +80,79 @@ public class MatcherTest {
 		assertThat(order).isEqualTo(order);
 		assertThat(trades).isEmpty();
 	}
+
+	@Test
+	void order_with_unreachable_minimum_execution_quantity_is_rejected_before_trading() {
+		Order order = new Order(11, security, Side.SELL, 2000, 1500, 15450, broker, shareholder);
+		MatchResult result = matcher.continuousExecuting(order, orderBook);
+		assertThat(result.outcome()).isEqualTo(MatchingOutcome.NOT_ENOUGH_EXECUTION);
+		assertThat(orderBook.getBuyQueue()).containsExactlyElementsOf(orders.subList(0, 5));
+		assertThat(orders.get(0).getQuantity()).isEqualTo(304);
+		assertThat(order.getQuantity()).isEqualTo(2000);
+	}
+
+	@Test
+	void opening_price_is_the_last_trade_price_when_nothing_is_tradable() {
+		AuctionStats stats = matcher.calcAuctionStats(orderBook, 15750);
+		assertThat(stats.getOpeningPrice()).isEqualTo(15750);
+		assertThat(stats.getTradableQuantity()).isZero();
+	}
+
+	@Test
+	void opening_price_is_the_nearest_price_to_last_trade_price_with_maximum_tradable_quantity() {
+		orderBook.enqueue(new Order(11, security, Side.BUY, 1000, 15810, broker, shareholder));
+		AuctionStats stats = matcher.calcAuctionStats(orderBook, 15000);
+		assertThat(stats.getOpeningPrice()).isEqualTo(15810);
+		assertThat(stats.getTradableQuantity()).isEqualTo(1000);
+	}
+
+	@Test
+	void opening_price_agrees_with_searching_every_price_on_changing_random_books() {
+		Random random = new Random(1404);
+		for (int round = 0; round < 200; round++) {
+			OrderBook randomBook = new OrderBook();
+			for (int id = 1; id <= 20; id++) {
+				Side side = random.nextBoolean() ? Side.BUY : Side.SELL;
+				int price = 1000 + random.nextInt(60);
+				int quantity = 2 + random.nextInt(50);
+				Order order = new Order(id, security, side, quantity, price, broker, shareholder);
+				randomBook.enqueue(order);
+				if (random.nextInt(4) == 0) {
+					order.decreaseQuantity(1 + random.nextInt(quantity - 1));
+				} else if (random.nextInt(4) == 0) {
+					randomBook.removeOrder(order);
+				}
+			}
+			int lastTradePrice = 980 + random.nextInt(100);
+
+			AuctionStats stats = matcher.calcAuctionStats(randomBook, lastTradePrice);
+			int expectedPrice = searchEveryPrice(randomBook, lastTradePrice);
+			assertThat(stats.getOpeningPrice()).isEqualTo(expectedPrice);
+			assertThat(stats.getTradableQuantity()).isEqualTo(matcher.calcTradableQuantity(randomBook, expectedPrice));
+		}
+	}
+
+	private int searchEveryPrice(OrderBook book, int lastTradePrice) {
+		if (!book.hasOrderOfType(Side.BUY) || !book.hasOrderOfType(Side.SELL)) {
+			return lastTradePrice;
+		}
+
+		int openingPrice = lastTradePrice;
+		int maxTradableQuantity = 0;
+		int maxPrice = book.getLowestPriorityActiveOrder(Side.SELL).getPrice();
+		for (int price = book.getLowestPriorityActiveOrder(Side.BUY).getPrice(); price <= maxPrice; price++) {
+			int tradableQuantity = matcher.calcTradableQuantity(book, price);
+			if (
+				tradableQuantity > maxTradableQuantity ||
+				(
+					tradableQuantity == maxTradableQuantity &&
+					Math.abs(price - lastTradePrice) < Math.abs(openingPrice - lastTradePrice)
+				)
+			) {
+				openingPrice = price;
+				maxTradableQuantity = tradableQuantity;
+			}
+		}
+		return openingPrice;
+	}
 }
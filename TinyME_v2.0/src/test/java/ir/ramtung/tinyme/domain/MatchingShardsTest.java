@@ -0,0 +1,160 @@
+package ir.ramtung.tinyme.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import ir.ramtung.tinyme.domain.entity.*;
+import ir.ramtung.tinyme.domain.service.ApplicationServices;
+import ir.ramtung.tinyme.domain.service.MatchingShards;
+import ir.ramtung.tinyme.domain.service.OrderHandler;
+import ir.ramtung.tinyme.messaging.EventPublisher;
+import ir.ramtung.tinyme.messaging.event.Event;
+import ir.ramtung.tinyme.messaging.event.OrderAcceptedEvent;
+import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
+import ir.ramtung.tinyme.repository.BrokerRepository;
+import ir.ramtung.tinyme.repository.JournalSyncPolicy;
+import ir.ramtung.tinyme.repository.RequestJournal;
+import ir.ramtung.tinyme.repository.SecurityRepository;
+import ir.ramtung.tinyme.repository.ShareholderRepository;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MatchingShardsTest {
+
+	private static final int SECURITY_COUNT = 16;
+	private static final int PAIR_COUNT = 200;
+	private static final long INITIAL_CREDIT = 1_000_000_000L;
+
+	private final List<Event> events = Collections.synchronizedList(new ArrayList<>());
+	private List<Security> securities;
+	private Broker broker;
+	private Shareholder shareholder;
+	private MatchingShards matchingShards;
+
+	@BeforeEach
+	void setup() {
+		SecurityRepository securityRepository = new SecurityRepository();
+		BrokerRepository brokerRepository = new BrokerRepository();
+		ShareholderRepository shareholderRepository = new ShareholderRepository();
+
+		broker = Broker.builder().brokerId(1).credit(INITIAL_CREDIT).build();
+		brokerRepository.addBroker(broker);
+		shareholder = Shareholder.builder().shareholderId(1).build();
+		shareholderRepository.addShareholder(shareholder);
+
+		securities = new ArrayList<>();
+		for (int i = 0; i < SECURITY_COUNT; i++) {
+			Security security = Security.builder().isin("S" + i).build();
+			securities.add(security);
+			securityRepository.addSecurity(security);
+			shareholder.incPosition(security, 10 * PAIR_COUNT);
+		}
+
+		EventPublisher eventPublisher = new EventPublisher(null, null, 0, 1) {
+			@Override
+			public void publish(Event event) {
+				events.add(event);
+			}
+		};
+		ApplicationServices services = new ApplicationServices(
+			securityRepository,
+			brokerRepository,
+			shareholderRepository
+		);
+		matchingShards = new MatchingShards(4, new OrderHandler(services, eventPublisher));
+	}
+
+	@AfterEach
+	void shutdownShards() throws InterruptedException {
+		matchingShards.shutdown();
+	}
+
+	private EnterOrderRq newOrderRq(int securityIndex, int sequence, Side side) {
+		return EnterOrderRq.createNewOrderRq(
+			securityIndex * 10_000L + sequence,
+			"S" + securityIndex,
+			sequence,
+			LocalDateTime.now(),
+			side,
+			10,
+			100,
+			broker.getBrokerId(),
+			shareholder.getShareholderId(),
+			0,
+			0
+		);
+	}
+
+	@Test
+	void matches_interleaved_securities_in_request_order_per_security() throws InterruptedException {
+		for (int pair = 0; pair < PAIR_COUNT; pair++) {
+			for (int i = 0; i < SECURITY_COUNT; i++) {
+				matchingShards.handleRq(newOrderRq(i, 2 * pair + 1, Side.SELL));
+				matchingShards.handleRq(newOrderRq(i, 2 * pair + 2, Side.BUY));
+			}
+		}
+		matchingShards.shutdown();
+
+		long[] lastRequestIds = new long[SECURITY_COUNT];
+		int accepted = 0;
+		for (Event event : events) {
+			if (event instanceof OrderAcceptedEvent acceptedEvent) {
+				int securityIndex = (int) (acceptedEvent.getRequestId() / 10_000);
+				assertThat(acceptedEvent.getRequestId()).isGreaterThan(lastRequestIds[securityIndex]);
+				lastRequestIds[securityIndex] = acceptedEvent.getRequestId();
+				accepted++;
+			}
+		}
+		assertThat(accepted).isEqualTo(2 * PAIR_COUNT * SECURITY_COUNT);
+
+		for (Security security : securities) {
+			assertThat(security.getOrderBook().getBuyQueue()).isEmpty();
+			assertThat(security.getOrderBook().getSellQueue()).isEmpty();
+			assertThat(security.getLastTradePrice()).isEqualTo(100);
+			assertThat(shareholder.getPositionBySecurity(security)).isEqualTo(10 * PAIR_COUNT);
+		}
+		assertThat(broker.getCredit()).isEqualTo(INITIAL_CREDIT);
+	}
+
+	@Test
+	void runs_a_paused_action_after_the_requests_dispatched_before_it() throws InterruptedException {
+		for (int sequence = 1; sequence <= 50; sequence++) {
+			for (int i = 0; i < SECURITY_COUNT; i++) {
+				matchingShards.dispatch(newOrderRq(i, sequence, Side.SELL));
+			}
+		}
+
+		int queued = matchingShards.callWhilePaused(() ->
+			securities.stream().mapToInt(security -> security.getOrderBook().getSellQueue().size()).sum()
+		);
+		assertThat(queued).isEqualTo(50 * SECURITY_COUNT);
+	}
+
+	@Test
+	void keeps_each_security_on_one_shard() {
+		for (Security security : securities) {
+			int shard = matchingShards.shardOf(security.getIsin());
+			assertThat(shard).isBetween(0, 3);
+			assertThat(matchingShards.shardOf(security.getIsin())).isEqualTo(shard);
+		}
+		assertThat(matchingShards.isEnabled()).isTrue();
+	}
+
+	@Test
+	void refuses_to_journal_requests_matched_on_shards(@TempDir Path directory) throws Exception {
+		RequestJournal requestJournal = new RequestJournal(directory.toString(), 1024, JournalSyncPolicy.NONE, 2);
+		try {
+			assertThatThrownBy(() -> new MatchingShards(4, null, requestJournal))
+				.isInstanceOf(IllegalStateException.class);
+		} finally {
+			requestJournal.close();
+		}
+	}
+}
@@ -2,9 +2,12 @@ package ir.ramtung.tinyme.domain;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.tuple;
 
 import ir.ramtung.tinyme.domain.entity.*;
 import ir.ramtung.tinyme.domain.exception.NotFoundException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,13 +16,15 @@ import org.junit.jupiter.api.Test;
 class OrderBookTest {
 
 	private Security security;
+	private Broker broker;
+	private Shareholder shareholder;
 	private List<Order> orders;
 
 	@BeforeEach
 	void setupOrderBook() {
 		security = Security.builder().build();
-		Broker broker = Broker.builder().credit(35_841_250).build();
-		Shareholder shareholder = Shareholder.builder().build();
+		broker = Broker.builder().credit(35_841_250).build();
+		shareholder = Shareholder.builder().build();
 		shareholder.incPosition(security, 100_000);
 		orders =
 			Arrays.asList(
@@ -37,6 +42,30 @@ class OrderBookTest {
 		orders.forEach(order -> security.getOrderBook().enqueue(order));
 	}
 
+	@Test
+	void bulk_enqueues_orders_in_price_and_time_priority() {
+		Security bulkSecurity = Security.builder().build();
+		List<Order> bulkOrders = Arrays.asList(
+			new Order(5, bulkSecurity, Side.BUY, 1000, 15400, broker, shareholder),
+			new Order(9, bulkSecurity, Side.SELL, 340, 15820, broker, shareholder),
+			new Order(3, bulkSecurity, Side.BUY, 445, 15450, broker, shareholder),
+			new Order(1, bulkSecurity, Side.BUY, 304, 15700, broker, shareholder),
+			new Order(7, bulkSecurity, Side.SELL, 285, 15810, broker, shareholder),
+			new Order(4, bulkSecurity, Side.BUY, 526, 15450, broker, shareholder),
+			new Order(6, bulkSecurity, Side.SELL, 350, 15800, broker, shareholder),
+			new Order(10, bulkSecurity, Side.SELL, 65, 15820, broker, shareholder),
+			new Order(2, bulkSecurity, Side.BUY, 43, 15500, broker, shareholder),
+			new Order(8, bulkSecurity, Side.SELL, 800, 15810, broker, shareholder)
+		);
+		OrderBook orderBook = bulkSecurity.getOrderBook();
+		orderBook.enqueueAll(bulkOrders);
+
+		assertThat(orderBook.getBuyQueue()).extracting("orderId").containsExactly(1L, 2L, 3L, 4L, 5L);
+		assertThat(orderBook.getSellQueue()).extracting("orderId").containsExactly(6L, 7L, 8L, 9L, 10L);
+		assertThat(orderBook.findByOrderId(Side.SELL, 8).getStatus()).isEqualTo(OrderStatus.QUEUED);
+		assertThat(orderBook.totalSellQuantityByShareholder(shareholder)).isEqualTo(1840);
+	}
+
 	@Test
 	void finds_the_first_order_by_id() {
 		assertThat(security.getOrderBook().findByOrderId(Side.BUY, 1)).isEqualTo(orders.get(0));
@@ -78,4 +107,224 @@ class OrderBookTest {
 		orderBook.removeByOrderId(Side.SELL, 10);
 		assertThat(orderBook.getSellQueue()).isEqualTo(orders.subList(5, 9));
 	}
+
+	@Test
+	void enqueues_new_order_at_the_end_of_its_price_level() {
+		OrderBook orderBook = security.getOrderBook();
+		Order order = new Order(11, security, Side.BUY, 100, 15450, broker, shareholder);
+		orderBook.enqueue(order);
+		assertThat(orderBook.getBuyQueue())
+			.containsExactly(orders.get(0), orders.get(1), orders.get(2), orders.get(3), order, orders.get(4));
+	}
+
+	@Test
+	void queues_an_order_by_entry_time_within_its_price_level() {
+		OrderBook orderBook = security.getOrderBook();
+		LocalDateTime earlierEntryTime = LocalDateTime.of(2001, 9, 11, 2, 14, 0);
+		Order order = new Order(11, security, Side.BUY, 100, 15450, broker, shareholder, earlierEntryTime);
+		Order sameTimeOrder = new Order(12, security, Side.BUY, 100, 15450, broker, shareholder, earlierEntryTime);
+		orderBook.enqueue(order);
+		orderBook.enqueue(sameTimeOrder);
+		assertThat(orderBook.getBuyQueue().get(2)).isEqualTo(order);
+		assertThat(orderBook.getBuyQueue().get(3)).isEqualTo(sameTimeOrder);
+	}
+
+	@Test
+	void enqueues_order_with_better_price_before_the_best_level() {
+		OrderBook orderBook = security.getOrderBook();
+		Order order = new Order(11, security, Side.SELL, 100, 15750, broker, shareholder);
+		orderBook.enqueue(order);
+		assertThat(orderBook.getHighestPriorityActiveOrder(Side.SELL)).isEqualTo(order);
+		assertThat(orderBook.getLowestPriorityActiveOrder(Side.SELL)).isEqualTo(orders.get(9));
+	}
+
+	@Test
+	void finds_stop_limit_order_by_id() {
+		OrderBook orderBook = security.getOrderBook();
+		StopLimitOrder order = new StopLimitOrder(11, security, Side.BUY, 100, 15900, broker, shareholder, 15850);
+		orderBook.enqueue(order);
+		assertThat(orderBook.findByOrderId(Side.BUY, 11)).isSameAs(order);
+	}
+
+	@Test
+	void forgets_the_order_id_after_removing_it() {
+		OrderBook orderBook = security.getOrderBook();
+		orderBook.removeByOrderId(Side.SELL, 7);
+		assertThat(orderBook.isThereOrderWithId(Side.SELL, 7)).isFalse();
+		assertThat(orderBook.isThereOrderWithId(Side.SELL, 8)).isTrue();
+	}
+
+	@Test
+	void requeues_replenished_iceberg_order_behind_its_price_level() {
+		OrderBook orderBook = security.getOrderBook();
+		LocalDateTime entryTime = LocalDateTime.of(2001, 9, 11, 2, 14, 0);
+		IcebergOrder order = new IcebergOrder(11, security, Side.BUY, 100, 0, 15450, broker, shareholder, entryTime, 10);
+		orderBook.enqueue(order);
+		assertThat(orderBook.getBuyQueue().get(2)).isEqualTo(order);
+		orderBook.requeue(order);
+		assertThat(orderBook.getBuyQueue())
+			.containsExactly(orders.get(0), orders.get(1), orders.get(2), orders.get(3), order, orders.get(4));
+	}
+
+	@Test
+	void polls_all_triggered_stop_limit_orders_in_priority_order() {
+		OrderBook orderBook = security.getOrderBook();
+		List<StopLimitOrder> stopLimitOrders = Arrays.asList(
+			new StopLimitOrder(11, security, Side.BUY, 100, 15900, broker, shareholder, 15850),
+			new StopLimitOrder(12, security, Side.BUY, 100, 15900, broker, shareholder, 15750),
+			new StopLimitOrder(13, security, Side.BUY, 100, 15900, broker, shareholder, 15900),
+			new StopLimitOrder(14, security, Side.SELL, 100, 15000, broker, shareholder, 15850),
+			new StopLimitOrder(15, security, Side.SELL, 100, 15000, broker, shareholder, 15300)
+		);
+		stopLimitOrders.forEach(orderBook::enqueue);
+
+		assertThat(orderBook.getStopLimitOrders(15850))
+			.containsExactly(stopLimitOrders.get(1), stopLimitOrders.get(0), stopLimitOrders.get(3));
+		assertThat(orderBook.getStopLimitOrderBuyQueue()).containsExactly(stopLimitOrders.get(2));
+		assertThat(orderBook.getStopLimitOrderSellQueue()).containsExactly(stopLimitOrders.get(4));
+		assertThat(orderBook.isThereOrderWithId(Side.BUY, 11)).isFalse();
+	}
+
+	@Test
+	void merges_triggered_stop_limit_orders_of_both_sides_by_time_priority() {
+		OrderBook orderBook = security.getOrderBook();
+		List<StopLimitOrder> stopLimitOrders = Arrays.asList(
+			new StopLimitOrder(11, security, Side.SELL, 100, 15000, broker, shareholder, 15850),
+			new StopLimitOrder(12, security, Side.BUY, 100, 15900, broker, shareholder, 15750),
+			new StopLimitOrder(13, security, Side.SELL, 100, 15000, broker, shareholder, 15900),
+			new StopLimitOrder(14, security, Side.BUY, 100, 15900, broker, shareholder, 15800)
+		);
+		stopLimitOrders.forEach(orderBook::enqueue);
+
+		assertThat(orderBook.getStopLimitOrders(15850))
+			.containsExactly(stopLimitOrders.get(1), stopLimitOrders.get(2), stopLimitOrders.get(0), stopLimitOrders.get(3));
+	}
+
+	@Test
+	void tracks_queued_sell_quantity_of_shareholder_through_trades_and_removals() {
+		OrderBook orderBook = security.getOrderBook();
+		orderBook.enqueue(new StopLimitOrder(11, security, Side.SELL, 100, 15000, broker, shareholder, 15300));
+		assertThat(orderBook.totalSellQuantityByShareholder(shareholder)).isEqualTo(1940);
+
+		orders.get(5).decreaseQuantity(50);
+		orderBook.removeByOrderId(Side.SELL, 8);
+		orderBook.getStopLimitOrders(15200);
+		assertThat(orderBook.totalSellQuantityByShareholder(shareholder)).isEqualTo(990);
+		assertThat(orderBook.scanTotalSellQuantityByShareholder(shareholder)).isEqualTo(990);
+
+		Shareholder otherShareholder = Shareholder.builder().shareholderId(1).build();
+		assertThat(orderBook.totalSellQuantityByShareholder(otherShareholder)).isZero();
+	}
+
+	@Test
+	void restores_queued_sell_quantity_of_shareholder_on_rollback() {
+		OrderBook orderBook = security.getOrderBook();
+		Order order = orders.get(6);
+		Order incomingOrder = new Order(11, security, Side.BUY, 300, 15810, broker, shareholder);
+		MatchJournal journal = new MatchJournal();
+		journal.recordTrade(new Trade(order, incomingOrder, 15810));
+		order.decreaseQuantity(285);
+		incomingOrder.decreaseQuantity(285);
+		orderBook.removeOrder(order);
+		assertThat(orderBook.totalSellQuantityByShareholder(shareholder)).isEqualTo(1555);
+
+		journal.rollback(orderBook);
+		assertThat(orderBook.totalSellQuantityByShareholder(shareholder)).isEqualTo(1840);
+		assertThat(orderBook.scanTotalSellQuantityByShareholder(shareholder)).isEqualTo(1840);
+		assertThat(orderBook.getSellQueue().get(1)).isEqualTo(order);
+		assertThat(incomingOrder.getQuantity()).isEqualTo(300);
+	}
+
+	@Test
+	void puts_requeued_iceberg_order_back_in_place_on_rollback() {
+		OrderBook orderBook = security.getOrderBook();
+		IcebergOrder order = new IcebergOrder(11, security, Side.BUY, 100, 15450, broker, shareholder, 10);
+		Order laterOrder = new Order(12, security, Side.BUY, 100, 15450, broker, shareholder);
+		orderBook.enqueue(order);
+		orderBook.enqueue(laterOrder);
+		Order incomingOrder = new Order(13, security, Side.SELL, 10, 15450, broker, shareholder);
+		MatchJournal journal = new MatchJournal();
+		journal.recordTrade(new Trade(incomingOrder, order, 15450));
+		order.decreaseQuantity(10);
+		order.replenish();
+		orderBook.requeue(order);
+		assertThat(orderBook.getBuyQueue().get(5)).isEqualTo(order);
+
+		journal.rollback(orderBook);
+		assertThat(orderBook.getBuyQueue().get(4)).isEqualTo(order);
+		assertThat(orderBook.getBuyQueue().get(5)).isEqualTo(laterOrder);
+	}
+
+	@Test
+	void forecasts_match_over_the_crossing_price_levels() {
+		Order order = new Order(11, security, Side.SELL, 1000, 15450, broker, shareholder);
+		MatchForecast forecast = security.getOrderBook().forecastMatch(order);
+		assertThat(forecast.getQuantity()).isEqualTo(1000);
+		assertThat(forecast.getValue()).isEqualTo(304L * 15700 + 43L * 15500 + 653L * 15450);
+		assertThat(forecast.isTradingWithOwnBroker()).isTrue();
+	}
+
+	@Test
+	void gives_the_top_price_levels_with_displayed_quantities_and_order_counts() {
+		OrderBook orderBook = security.getOrderBook();
+		IcebergOrder icebergOrder = new IcebergOrder(11, security, Side.SELL, 1000, 15800, broker, shareholder, 100);
+		orderBook.enqueue(icebergOrder);
+
+		assertThat(orderBook.getTopLevels(Side.SELL, 2))
+			.extracting("price", "displayedQuantity", "totalQuantity")
+			.containsExactly(tuple(15800, 450, 1350), tuple(15810, 1085, 1085));
+		assertThat(orderBook.getTopLevels(Side.SELL, 2)).extracting(PriceLevel::size).containsExactly(2, 2);
+		assertThat(orderBook.getTopLevels(Side.BUY, 10)).extracting("price").containsExactly(15700, 15500, 15450, 15400);
+
+		icebergOrder.decreaseQuantity(100);
+		assertThat(orderBook.getTopLevels(Side.SELL, 1)).extracting("displayedQuantity").containsExactly(350);
+		icebergOrder.replenish();
+		orderBook.removeByOrderId(Side.SELL, 6);
+		assertThat(orderBook.getTopLevels(Side.SELL, 1))
+			.extracting("displayedQuantity", "totalQuantity")
+			.containsExactly(tuple(100, 900));
+	}
+
+	@Test
+	void reports_a_top_of_book_change_only_when_a_best_level_changes() {
+		OrderBook orderBook = security.getOrderBook();
+		assertThat(orderBook.getTopOfBook(Side.BUY)).isEqualTo(new TopOfBook(15700, 304, 1));
+		assertThat(orderBook.getTopOfBook(Side.SELL)).isEqualTo(new TopOfBook(15800, 350, 1));
+		assertThat(orderBook.takeTopOfBookChange()).isTrue();
+
+		orderBook.removeByOrderId(Side.BUY, 5);
+		assertThat(orderBook.takeTopOfBookChange()).isFalse();
+
+		orderBook.enqueue(new Order(11, security, Side.SELL, 50, 15800, broker, shareholder));
+		assertThat(orderBook.takeTopOfBookChange()).isTrue();
+		assertThat(orderBook.getTopOfBook(Side.SELL)).isEqualTo(new TopOfBook(15800, 400, 2));
+
+		orderBook.removeByOrderId(Side.BUY, 1);
+		assertThat(orderBook.getTopOfBook(Side.BUY)).isEqualTo(new TopOfBook(15500, 43, 1));
+		assertThat(orderBook.takeTopOfBookChange()).isTrue();
+		assertThat(orderBook.takeTopOfBookChange()).isFalse();
+	}
+
+	@Test
+	void gives_an_empty_top_of_book_for_an_empty_side() {
+		OrderBook orderBook = Security.builder().build().getOrderBook();
+		assertThat(orderBook.getTopOfBook(Side.BUY)).isEqualTo(TopOfBook.EMPTY);
+		assertThat(orderBook.takeTopOfBookChange()).isFalse();
+	}
+
+	@Test
+	void forgets_the_changes_of_loading_the_book() {
+		OrderBook orderBook = security.getOrderBook();
+		orderBook.forgetChanges();
+
+		List<Integer> changedPrices = new ArrayList<>();
+		orderBook.takeChangedLevels(Side.BUY, changedPrices::add);
+		orderBook.takeChangedLevels(Side.SELL, changedPrices::add);
+		assertThat(changedPrices).isEmpty();
+		assertThat(orderBook.takeTopOfBookChange()).isFalse();
+
+		orderBook.removeByOrderId(Side.BUY, 5);
+		orderBook.takeChangedLevels(Side.BUY, changedPrices::add);
+		assertThat(changedPrices).containsExactly(15400);
+	}
 }
@@ -9,11 +9,13 @@ import ir.ramtung.tinyme.domain.service.ApplicationServices;
 import ir.ramtung.tinyme.domain.service.OrderHandler;
 import ir.ramtung.tinyme.messaging.EventPublisher;
 import ir.ramtung.tinyme.messaging.Message;
+import ir.ramtung.tinyme.messaging.PriceLevelDTO;
 import ir.ramtung.tinyme.messaging.TradeDTO;
 import ir.ramtung.tinyme.messaging.event.*;
 import ir.ramtung.tinyme.messaging.request.ChangeMatchingStateRq;
 import ir.ramtung.tinyme.messaging.request.DeleteOrderRq;
 import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
+import ir.ramtung.tinyme.messaging.request.MarketDepthRq;
 import ir.ramtung.tinyme.messaging.request.MatchingState;
 import ir.ramtung.tinyme.repository.BrokerRepository;
 import ir.ramtung.tinyme.repository.SecurityRepository;
@@ -442,7 +444,7 @@ public class OrderHandlerTest {
 				1,
 				incomingSellOrder.getSecurity().getIsin(),
 				incomingSellOrder.getOrderId(),
-				incomingSellOrder.getEntryTimes().getFirst(),
+				incomingSellOrder.getEntryTime(),
 				incomingSellOrder.getSide(),
 				incomingSellOrder.getTotalQuantity(),
 				incomingSellOrder.getPrice(),
@@ -483,7 +485,7 @@ public class OrderHandlerTest {
 				1,
 				incomingSellOrder.getSecurity().getIsin(),
 				incomingSellOrder.getOrderId(),
-				incomingSellOrder.getEntryTimes().getFirst(),
+				incomingSellOrder.getEntryTime(),
 				incomingSellOrder.getSide(),
 				incomingSellOrder.getTotalQuantity(),
 				incomingSellOrder.getPrice(),
@@ -1669,4 +1671,40 @@ public class OrderHandlerTest {
 
 		verify(eventPublisher, never()).publish(any(OrderRejectedEvent.class));
 	}
+
+	@Test
+	void market_depth_gives_the_top_levels_of_both_sides() {
+		broker1.increaseCreditBy(100_000);
+		shareholder.incPosition(security, 1000);
+		List.of(
+			new Order(1, security, Side.BUY, 10, 500, broker1, shareholder),
+			new Order(2, security, Side.BUY, 20, 500, broker1, shareholder),
+			new Order(3, security, Side.BUY, 30, 490, broker1, shareholder),
+			new Order(4, security, Side.BUY, 40, 480, broker1, shareholder),
+			new IcebergOrder(5, security, Side.SELL, 100, 600, broker2, shareholder, 10)
+		).forEach(order -> security.getOrderBook().enqueue(order));
+
+		orderHandler.handleRq(new MarketDepthRq(7, "ABC", 2));
+
+		verify(eventPublisher).publish(
+			new MarketDepthEvent(
+				7,
+				"ABC",
+				List.of(new PriceLevelDTO(500, 30, 2), new PriceLevelDTO(490, 30, 1)),
+				List.of(new PriceLevelDTO(600, 10, 1))
+			)
+		);
+	}
+
+	@Test
+	void market_depth_invalid_fields() {
+		orderHandler.handleRq(new MarketDepthRq(7, "-1", 0));
+		ArgumentCaptor<MarketDepthRejectedEvent> rejectedCaptor = ArgumentCaptor.forClass(MarketDepthRejectedEvent.class);
+		verify(eventPublisher).publish(rejectedCaptor.capture());
+		MarketDepthRejectedEvent outputEvent = rejectedCaptor.getValue();
+
+		assertThat(outputEvent.getRequestId()).isEqualTo(7);
+		assertThat(outputEvent.getErrors())
+			.containsOnly(Message.MARKET_DEPTH_NOT_POSITIVE, Message.UNKNOWN_SECURITY_ISIN);
+	}
 }
@@ -0,0 +1,151 @@
+package ir.ramtung.tinyme.domain.entity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CreditLedgerTest {
+
+	private static final int THREAD_COUNT = 8;
+	private static final int ROUNDS = 20_000;
+
+	private ExecutorService executor;
+
+	@BeforeEach
+	void setup() {
+		executor = Executors.newFixedThreadPool(THREAD_COUNT);
+	}
+
+	@AfterEach
+	void shutdown() {
+		executor.shutdownNow();
+	}
+
+	private List<Integer> runOnAllThreads(Callable<Integer> task) throws Exception {
+		List<Future<Integer>> futures = new ArrayList<>();
+		for (int i = 0; i < THREAD_COUNT; i++) {
+			futures.add(executor.submit(task));
+		}
+
+		List<Integer> results = new ArrayList<>();
+		for (Future<Integer> future : futures) {
+			results.add(future.get());
+		}
+		return results;
+	}
+
+	@Test
+	void reserves_commits_and_releases_exactly_from_many_threads() throws Exception {
+		CreditLedger ledger = new CreditLedger(1_000_000);
+
+		runOnAllThreads(() -> {
+			for (int round = 0; round < ROUNDS; round++) {
+				if (ledger.tryReserve(30)) {
+					ledger.commit(10);
+					ledger.release(20);
+				}
+				ledger.deposit(10);
+			}
+			return 0;
+		});
+
+		assertThat(ledger.getAvailable()).isEqualTo(1_000_000);
+		assertThat(ledger.getReserved()).isZero();
+	}
+
+	@Test
+	void never_reserves_more_than_the_available_credit() throws Exception {
+		CreditLedger ledger = new CreditLedger(1000);
+
+		List<Integer> reservations = runOnAllThreads(() -> {
+			int reserved = 0;
+			for (int round = 0; round < ROUNDS; round++) {
+				if (ledger.tryReserve(7)) {
+					reserved++;
+				}
+			}
+			return reserved;
+		});
+
+		int total = reservations.stream().mapToInt(Integer::intValue).sum();
+		assertThat(total).isEqualTo(1000 / 7);
+		assertThat(ledger.getAvailable()).isEqualTo(1000 % 7);
+		assertThat(ledger.getReserved()).isEqualTo(7L * total);
+	}
+
+	@Test
+	void rolls_back_only_the_credit_changes_of_its_own_trades() throws Exception {
+		Security security = Security.builder().build();
+		Broker broker = Broker.builder().credit(1_000_000).build();
+		Shareholder shareholder = Shareholder.builder().build();
+		shareholder.incPosition(security, 100);
+		Order sellOrder = new Order(1, security, Side.SELL, 10, 100, broker, shareholder);
+		Order buyOrder = new Order(2, security, Side.BUY, 10, 100, broker, shareholder);
+		security.getOrderBook().enqueue(sellOrder);
+
+		Future<?> otherShard = executor.submit(() -> {
+			for (int round = 0; round < ROUNDS; round++) {
+				broker.increaseCreditBy(1);
+			}
+		});
+
+		MatchJournal journal = new MatchJournal();
+		Trade trade = new Trade(sellOrder, buyOrder, 100);
+		assertThat(broker.reserveCredit(trade.getTradedValue())).isTrue();
+		journal.recordTrade(trade);
+		broker.commitCredit(trade.getTradedValue());
+		broker.increaseCreditBy(trade.getTradedValue());
+		journal.rollback(security.getOrderBook());
+		otherShard.get();
+
+		assertThat(broker.getCredit()).isEqualTo(1_000_000 + ROUNDS);
+		assertThat(broker.getReservedCredit()).isZero();
+	}
+
+	@Test
+	void a_rejected_update_never_lets_another_shard_take_the_credit_it_holds() throws Exception {
+		Security security = Security.builder().build();
+		Broker broker = Broker.builder().credit(1500).build();
+		Shareholder shareholder = Shareholder.builder().build();
+		Order buyOrder = new Order(1, security, Side.BUY, 10, 50, broker, shareholder);
+		assertThat(broker.reserveCredit(buyOrder.getValue())).isTrue();
+		security.getOrderBook().enqueue(buyOrder);
+
+		Future<?> updates = executor.submit(() -> {
+			for (int round = 0; round < ROUNDS; round++) {
+				security.updateOrder(new Order(1, security, Side.BUY, 10, 1000, broker, shareholder));
+			}
+		});
+		List<Future<Integer>> otherShards = new ArrayList<>();
+		for (int i = 1; i < THREAD_COUNT; i++) {
+			otherShards.add(
+				executor.submit(() -> {
+					int taken = 0;
+					while (!updates.isDone()) {
+						if (broker.reserveCredit(1001)) {
+							taken++;
+							broker.releaseCredit(1001);
+						}
+					}
+					return taken;
+				})
+			);
+		}
+		updates.get();
+
+		for (Future<Integer> otherShard : otherShards) {
+			assertThat(otherShard.get()).isZero();
+		}
+		assertThat(broker.getCredit()).isEqualTo(1000);
+		assertThat(broker.getReservedCredit()).isEqualTo(500);
+		assertThat(security.getOrderBook().findByOrderId(Side.BUY, 1).getPrice()).isEqualTo(50);
+	}
+}
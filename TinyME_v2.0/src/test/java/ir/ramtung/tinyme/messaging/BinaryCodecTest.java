@@ -0,0 +1,130 @@
+package ir.ramtung.tinyme.messaging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ir.ramtung.tinyme.domain.entity.Side;
+import ir.ramtung.tinyme.messaging.event.*;
+import ir.ramtung.tinyme.messaging.request.ChangeMatchingStateRq;
+import ir.ramtung.tinyme.messaging.request.DeleteOrderRq;
+import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
+import ir.ramtung.tinyme.messaging.request.MarketDepthRq;
+import ir.ramtung.tinyme.messaging.request.MatchingState;
+import jakarta.jms.BytesMessage;
+import jakarta.jms.Session;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class BinaryCodecTest {
+
+	private static final LocalDateTime TIME = LocalDateTime.of(2024, 3, 17, 9, 30, 15, 123_456_789);
+
+	private Object roundTrip(Object message) {
+		ByteBuffer buffer = BinaryCodec.newBuffer(1024);
+		BinaryCodec.encode(message, buffer);
+		buffer.flip();
+		Object decoded = BinaryCodec.decode(buffer);
+		assertThat(buffer.hasRemaining()).isFalse();
+		return decoded;
+	}
+
+	@Test
+	void round_trips_enter_order_requests() {
+		EnterOrderRq newOrderRq = EnterOrderRq.createNewOrderRq(1, "ABC", 2, TIME, Side.BUY, 300, 15450, 3, 4, 50, 10);
+		EnterOrderRq updateOrderRq = EnterOrderRq.createUpdateOrderRq(5, "ABC", 2, TIME, Side.SELL, 200, 15500, 3, 4, 0, 0, 15400);
+
+		assertThat(roundTrip(newOrderRq)).usingRecursiveComparison().isEqualTo(newOrderRq);
+		assertThat(roundTrip(updateOrderRq)).usingRecursiveComparison().isEqualTo(updateOrderRq);
+	}
+
+	@Test
+	void round_trips_delete_and_change_state_requests() {
+		DeleteOrderRq deleteOrderRq = new DeleteOrderRq(1, "ABC", Side.SELL, 2, TIME);
+		ChangeMatchingStateRq changeMatchingStateRq = new ChangeMatchingStateRq("ABC", MatchingState.AUCTION);
+
+		assertThat(roundTrip(deleteOrderRq)).usingRecursiveComparison().isEqualTo(deleteOrderRq);
+		assertThat(roundTrip(changeMatchingStateRq)).usingRecursiveComparison().isEqualTo(changeMatchingStateRq);
+	}
+
+	@Test
+	void round_trips_market_depth_requests() {
+		MarketDepthRq marketDepthRq = new MarketDepthRq(1, "ABC", 5);
+		assertThat(roundTrip(marketDepthRq)).usingRecursiveComparison().isEqualTo(marketDepthRq);
+	}
+
+	@Test
+	void keeps_missing_fields_missing() {
+		DeleteOrderRq deleteOrderRq = new DeleteOrderRq(1, null, null, 2, null);
+		assertThat(roundTrip(deleteOrderRq)).usingRecursiveComparison().isEqualTo(deleteOrderRq);
+
+		OrderRejectedEvent rejectedEvent = new OrderRejectedEvent(1, 2, null);
+		assertThat(roundTrip(rejectedEvent)).isEqualTo(rejectedEvent);
+	}
+
+	@Test
+	void round_trips_every_event_with_its_time() {
+		List<Event> events = List.of(
+			new OrderAcceptedEvent(1, 2),
+			new OrderUpdatedEvent(1, 2),
+			new OrderDeletedEvent(1, 2),
+			new OrderRejectedEvent(1, 2, List.of(Message.INVALID_ORDER_ID, Message.UNKNOWN_SECURITY_ISIN)),
+			new OrderExecutedEvent(1, 2, List.of(new TradeDTO("ABC", 15450, 100, 2, 7), new TradeDTO("ABC", 15400, 5, 2, 8))),
+			new OrderActivatedEvent(2),
+			new TradeEvent("ABC", 15450, 100, 2, 7),
+			new OpeningPriceEvent("ABC", 15450, 1000),
+			new SecurityStateChangedEvent("ABC", MatchingState.CONTINUOUS),
+			new MarketDepthEvent(
+				1,
+				"ABC",
+				List.of(new PriceLevelDTO(15450, 300, 2), new PriceLevelDTO(15400, 100, 1)),
+				List.of()
+			),
+			new MarketDepthRejectedEvent(7, List.of(Message.MARKET_DEPTH_NOT_POSITIVE)),
+			new TopOfBookChangedEvent("ABC", 1_700_000_000_000L, 3, new PriceLevelDTO(15450, 300, 2), new PriceLevelDTO(0, 0, 0)),
+			new MarketDataEvent(
+				"ABC",
+				1_700_000_000_000L,
+				3,
+				List.of(new LevelUpdateDTO(Side.BUY, 15450, 300, 2), new LevelUpdateDTO(Side.SELL, 15500, 0, 0)),
+				List.of(new TradeDTO("ABC", 15450, 100, 2, 7))
+			)
+		);
+
+		for (Event event : events) {
+			event.setTime(TIME);
+			Event decoded = (Event) roundTrip(event);
+			assertThat(decoded).isEqualTo(event);
+			assertThat(decoded.getTime()).isEqualTo(TIME);
+		}
+	}
+
+	@Test
+	void round_trips_strings_up_to_the_longest_length_and_rejects_longer_ones() {
+		String longest = "a".repeat(BinaryCodec.MAX_STRING_BYTES);
+		OrderRejectedEvent event = new OrderRejectedEvent(1, 2, List.of(longest));
+		ByteBuffer buffer = BinaryCodec.newBuffer(2 * BinaryCodec.MAX_STRING_BYTES);
+		BinaryCodec.encode(event, buffer);
+		buffer.flip();
+		assertThat(BinaryCodec.decode(buffer)).isEqualTo(event);
+
+		OrderRejectedEvent tooLong = new OrderRejectedEvent(1, 2, List.of(longest + "a"));
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> BinaryCodec.encode(tooLong, BinaryCodec.newBuffer(2 * BinaryCodec.MAX_STRING_BYTES)));
+	}
+
+	@Test
+	void converts_to_a_bytes_message_with_the_type_id_the_listeners_select_on() throws Exception {
+		Session session = mock(Session.class);
+		BytesMessage message = mock(BytesMessage.class);
+		when(session.createBytesMessage()).thenReturn(message);
+
+		new BinaryMessageConverter().toMessage(new OrderAcceptedEvent(1, 2), session);
+
+		verify(message).setStringProperty("_type", OrderAcceptedEvent.class.getName());
+	}
+}
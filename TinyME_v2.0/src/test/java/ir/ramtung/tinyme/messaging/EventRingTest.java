@@ -0,0 +1,208 @@
+package ir.ramtung.tinyme.messaging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ir.ramtung.tinyme.messaging.event.Event;
+import ir.ramtung.tinyme.messaging.event.OrderAcceptedEvent;
+import jakarta.jms.Connection;
+import jakarta.jms.JMSException;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.Message;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Queue;
+import jakarta.jms.Session;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.support.converter.MessageConverter;
+
+class EventRingTest {
+
+	private static final int PRODUCER_COUNT = 4;
+	private static final int EVENTS_PER_PRODUCER = 50_000;
+
+	@Test
+	void rejects_capacity_that_is_not_a_power_of_two() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new EventRing(100));
+	}
+
+	@Test
+	void refuses_offers_when_full_until_an_event_is_taken() {
+		EventRing ring = new EventRing(2);
+		assertThat(ring.offer(new OrderAcceptedEvent(1, 1))).isTrue();
+		assertThat(ring.offer(new OrderAcceptedEvent(2, 2))).isTrue();
+		assertThat(ring.offer(new OrderAcceptedEvent(3, 3))).isFalse();
+
+		assertThat(ring.poll()).isEqualTo(new OrderAcceptedEvent(1, 1));
+		assertThat(ring.offer(new OrderAcceptedEvent(3, 3))).isTrue();
+		assertThat(ring.poll()).isEqualTo(new OrderAcceptedEvent(2, 2));
+		assertThat(ring.poll()).isEqualTo(new OrderAcceptedEvent(3, 3));
+		assertThat(ring.poll()).isNull();
+		assertThat(ring.isEmpty()).isTrue();
+	}
+
+	@Test
+	void keeps_the_order_of_each_producer_through_a_small_ring() throws InterruptedException {
+		EventRing ring = new EventRing(64);
+		List<Thread> producers = new ArrayList<>();
+		for (int producer = 0; producer < PRODUCER_COUNT; producer++) {
+			long producerId = producer;
+			producers.add(
+				Thread.ofPlatform().start(() -> {
+					for (int i = 0; i < EVENTS_PER_PRODUCER; i++) {
+						OrderAcceptedEvent event = new OrderAcceptedEvent(producerId, i);
+						int spins = 0;
+						while (!ring.offer(event)) {
+							spins = EventRing.backOff(spins);
+						}
+					}
+				})
+			);
+		}
+
+		long[] nextOrderIds = new long[PRODUCER_COUNT];
+		int received = 0;
+		while (received < PRODUCER_COUNT * EVENTS_PER_PRODUCER) {
+			Event event = ring.poll();
+			if (event == null) {
+				Thread.onSpinWait();
+				continue;
+			}
+
+			OrderAcceptedEvent accepted = (OrderAcceptedEvent) event;
+			int producer = (int) accepted.getRequestId();
+			assertThat(accepted.getOrderId()).isEqualTo(nextOrderIds[producer]);
+			nextOrderIds[producer]++;
+			received++;
+		}
+		for (Thread producer : producers) {
+			producer.join();
+		}
+		assertThat(ring.isEmpty()).isTrue();
+	}
+
+	@Test
+	void sends_buffered_events_in_order_on_the_sender_thread() throws InterruptedException {
+		JmsTemplate jmsTemplate = mock(JmsTemplate.class);
+		List<Object> sent = new ArrayList<>();
+		CountDownLatch firstSend = new CountDownLatch(1);
+		doAnswer(invocation -> {
+				sent.add(invocation.getArgument(1));
+				assertThat(Thread.currentThread().getName()).isEqualTo("event-publisher");
+				firstSend.countDown();
+				return null;
+			})
+			.when(jmsTemplate)
+			.convertAndSend(eq("RS"), any(Object.class));
+
+		EventPublisher eventPublisher = new EventPublisher(jmsTemplate, "RS", 4, 1);
+		List<Event> published = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			Event event = new OrderAcceptedEvent(i, i);
+			published.add(event);
+			eventPublisher.publish(event);
+		}
+		assertThat(firstSend.await(10, TimeUnit.SECONDS)).isTrue();
+		eventPublisher.shutdown();
+
+		assertThat(sent).containsExactlyElementsOf(published);
+	}
+
+	@Test
+	void sends_piled_up_events_in_one_transaction_on_a_cached_producer() throws Exception {
+		Session session = mock(Session.class);
+		MessageProducer producer = mock(MessageProducer.class);
+		Connection connection = mock(Connection.class);
+		ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+		when(connectionFactory.createConnection()).thenReturn(connection);
+		when(connection.createSession(true, Session.SESSION_TRANSACTED)).thenReturn(session);
+		when(session.createQueue("RS")).thenReturn(mock(Queue.class));
+		when(session.createProducer(any())).thenReturn(producer);
+
+		List<Event> sent = new ArrayList<>();
+		MessageConverter converter = mock(MessageConverter.class);
+		when(converter.toMessage(any(), eq(session))).thenAnswer(invocation -> {
+				sent.add(invocation.getArgument(0));
+				return mock(Message.class);
+			});
+
+		JmsTemplate jmsTemplate = new JmsTemplate(connectionFactory);
+		jmsTemplate.setMessageConverter(converter);
+		EventPublisher eventPublisher = new EventPublisher(jmsTemplate, "RS", 1024, 64);
+		List<Event> published = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			Event event = new OrderAcceptedEvent(i, i);
+			published.add(event);
+			eventPublisher.publish(event);
+		}
+		eventPublisher.shutdown();
+
+		assertThat(sent).containsExactlyElementsOf(published);
+		verify(producer, times(1000)).send(any(Message.class));
+		verify(session, atLeastOnce()).commit();
+		verify(session, times(1)).createProducer(any());
+		verify(connection).close();
+	}
+
+	@Test
+	void sends_a_failed_batch_again_until_it_gets_through() throws Exception {
+		EventBatchSender batchSender = mock(EventBatchSender.class);
+		List<Event> sent = new ArrayList<>();
+		AtomicInteger failures = new AtomicInteger();
+		doAnswer(invocation -> {
+				if (failures.getAndIncrement() < 2) {
+					throw new JMSException("broker went away");
+				}
+				sent.addAll(invocation.getArgument(0));
+				return null;
+			})
+			.when(batchSender)
+			.send(any());
+
+		EventPublisher eventPublisher = new EventPublisher(null, "RS", 1024, 64, "sender", () -> batchSender, 3, 1);
+		List<Event> published = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			Event event = new OrderAcceptedEvent(i, i);
+			published.add(event);
+			eventPublisher.publish(event);
+		}
+		eventPublisher.shutdown();
+
+		assertThat(sent).containsExactlyElementsOf(published);
+		eventPublisher.checkSending();
+	}
+
+	@Test
+	void stops_publishing_when_a_batch_never_gets_through() throws Exception {
+		EventBatchSender batchSender = mock(EventBatchSender.class);
+		doThrow(new JMSException("broker went away")).when(batchSender).send(any());
+		EventPublisher eventPublisher = new EventPublisher(null, "RS", 4, 64, "sender", () -> batchSender, 3, 1);
+
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		assertThatIllegalStateException()
+			.isThrownBy(() -> {
+				while (System.nanoTime() < deadline) {
+					eventPublisher.publish(new OrderAcceptedEvent(1, 1));
+				}
+			});
+		eventPublisher.shutdown();
+
+		verify(batchSender, times(3)).send(any());
+		assertThatIllegalStateException().isThrownBy(eventPublisher::checkSending);
+	}
+}
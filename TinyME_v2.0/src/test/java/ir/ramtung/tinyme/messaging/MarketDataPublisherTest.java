@@ -0,0 +1,142 @@
+package ir.ramtung.tinyme.messaging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ir.ramtung.tinyme.domain.entity.Broker;
+import ir.ramtung.tinyme.domain.entity.Security;
+import ir.ramtung.tinyme.domain.entity.Shareholder;
+import ir.ramtung.tinyme.domain.entity.Side;
+import ir.ramtung.tinyme.domain.service.ApplicationServices;
+import ir.ramtung.tinyme.domain.service.OrderHandler;
+import ir.ramtung.tinyme.messaging.event.Event;
+import ir.ramtung.tinyme.messaging.event.MarketDataEvent;
+import ir.ramtung.tinyme.messaging.event.TopOfBookChangedEvent;
+import ir.ramtung.tinyme.messaging.request.DeleteOrderRq;
+import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
+import ir.ramtung.tinyme.messaging.request.MarketDepthRq;
+import ir.ramtung.tinyme.repository.BrokerRepository;
+import ir.ramtung.tinyme.repository.SecurityRepository;
+import ir.ramtung.tinyme.repository.ShareholderRepository;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MarketDataPublisherTest {
+
+	private static final long EPOCH = 1_700_000_000_000L;
+
+	private final List<MarketDataEvent> published = new ArrayList<>();
+	private final List<TopOfBookChangedEvent> quotes = new ArrayList<>();
+	private final List<Event> responses = new ArrayList<>();
+	private OrderHandler orderHandler;
+
+	@BeforeEach
+	void setup() {
+		SecurityRepository securityRepository = new SecurityRepository();
+		BrokerRepository brokerRepository = new BrokerRepository();
+		ShareholderRepository shareholderRepository = new ShareholderRepository();
+
+		Security security = Security.builder().isin("ABC").build();
+		securityRepository.addSecurity(security);
+		brokerRepository.addBroker(Broker.builder().brokerId(1).credit(100_000_000L).build());
+		Shareholder shareholder = Shareholder.builder().shareholderId(1).build();
+		shareholder.incPosition(security, 10_000);
+		shareholderRepository.addShareholder(shareholder);
+
+		EventPublisher feed = new EventPublisher(null, null, 0, 1) {
+			@Override
+			public void publish(Event event) {
+				if (event instanceof TopOfBookChangedEvent quote) {
+					quotes.add(quote);
+				} else {
+					published.add((MarketDataEvent) event);
+				}
+			}
+		};
+		orderHandler = new OrderHandler(
+			new ApplicationServices(securityRepository, brokerRepository, shareholderRepository),
+			new EventPublisher(null, null, 0, 1) {
+				@Override
+				public void publish(Event event) {
+					responses.add(event);
+				}
+			},
+			new MarketDataPublisher(feed, EPOCH)
+		);
+	}
+
+	private void enterOrder(long orderId, Side side, int quantity, int price) {
+		orderHandler.handleRq(
+			EnterOrderRq.createNewOrderRq(orderId, "ABC", orderId, LocalDateTime.now(), side, quantity, price, 1, 1, 0, 0)
+		);
+	}
+
+	private MarketDataEvent lastPublished() {
+		return published.get(published.size() - 1);
+	}
+
+	@Test
+	void publishes_each_changed_level_once_with_where_it_ended_up() {
+		enterOrder(1, Side.SELL, 100, 15500);
+		enterOrder(2, Side.SELL, 200, 15500);
+		enterOrder(3, Side.BUY, 250, 15500);
+
+		assertThat(lastPublished())
+			.isEqualTo(
+				new MarketDataEvent(
+					"ABC",
+					EPOCH,
+					3,
+					List.of(new LevelUpdateDTO(Side.SELL, 15500, 50, 1)),
+					List.of(new TradeDTO("ABC", 15500, 100, 3, 1), new TradeDTO("ABC", 15500, 150, 3, 2))
+				)
+			);
+	}
+
+	@Test
+	void publishes_an_emptied_level_with_no_quantity_and_no_orders() {
+		enterOrder(1, Side.BUY, 100, 15400);
+		enterOrder(2, Side.BUY, 100, 15300);
+		orderHandler.handleRq(new DeleteOrderRq(3, "ABC", Side.BUY, 1));
+
+		assertThat(published).extracting(MarketDataEvent::getSequence).containsExactly(1L, 2L, 3L);
+		assertThat(lastPublished().getLevels()).containsExactly(new LevelUpdateDTO(Side.BUY, 15400, 0, 0));
+		assertThat(lastPublished().getTrades()).isEmpty();
+	}
+
+	@Test
+	void publishes_nothing_for_a_request_that_changes_no_level() {
+		enterOrder(1, Side.BUY, 100, 15400);
+		orderHandler.handleRq(new MarketDepthRq(2, "ABC", 5));
+
+		assertThat(published).hasSize(1);
+	}
+
+	@Test
+	void publishes_the_top_of_book_on_the_feed_only_when_it_changes() {
+		enterOrder(1, Side.BUY, 100, 15400);
+		enterOrder(2, Side.BUY, 100, 15300);
+		enterOrder(3, Side.SELL, 50, 15500);
+
+		assertThat(quotes)
+			.containsExactly(
+				new TopOfBookChangedEvent(
+					"ABC",
+					EPOCH,
+					1,
+					new PriceLevelDTO(15400, 100, 1),
+					new PriceLevelDTO(0, 0, 0)
+				),
+				new TopOfBookChangedEvent(
+					"ABC",
+					EPOCH,
+					3,
+					new PriceLevelDTO(15400, 100, 1),
+					new PriceLevelDTO(15500, 50, 1)
+				)
+			);
+		assertThat(responses).noneMatch(TopOfBookChangedEvent.class::isInstance);
+	}
+}
@@ -0,0 +1,57 @@
+package ir.ramtung.tinyme.messaging;
+
+import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ir.ramtung.tinyme.domain.entity.Side;
+import ir.ramtung.tinyme.domain.service.MatchingShards;
+import ir.ramtung.tinyme.domain.service.OrderHandler;
+import ir.ramtung.tinyme.messaging.request.BaseRq;
+import ir.ramtung.tinyme.messaging.request.ChangeMatchingStateRq;
+import ir.ramtung.tinyme.messaging.request.DeleteOrderRq;
+import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
+import ir.ramtung.tinyme.messaging.request.MatchingState;
+import jakarta.jms.TextMessage;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jms.support.converter.MappingJackson2MessageConverter;
+
+class RequestIngressTest {
+
+	private final OrderHandler orderHandler = mock(OrderHandler.class);
+	private final RequestIngress requestIngress = new RequestIngress(new MatchingShards(0, orderHandler));
+
+	@Test
+	void handles_requests_of_every_type_in_the_order_they_were_received() {
+		LocalDateTime now = LocalDateTime.now();
+		List<BaseRq> requests = List.of(
+			EnterOrderRq.createNewOrderRq(1, "ABC", 10, now, Side.BUY, 300, 15450, 1, 1, 0, 0),
+			EnterOrderRq.createUpdateOrderRq(2, "ABC", 10, now, Side.BUY, 200, 15450, 1, 1, 0, 0),
+			new ChangeMatchingStateRq("ABC", MatchingState.AUCTION),
+			new DeleteOrderRq(3, "ABC", Side.BUY, 10)
+		);
+
+		requests.forEach(requestIngress::receiveRq);
+
+		InOrder inOrder = inOrder(orderHandler);
+		requests.forEach(request -> inOrder.verify(orderHandler).handleRq(request));
+	}
+
+	@Test
+	void takes_the_request_type_from_the_type_property() throws Exception {
+		MappingJackson2MessageConverter converter = (MappingJackson2MessageConverter) new MessagingConfig()
+			.jacksonJmsMessageConverter();
+		TextMessage message = mock(TextMessage.class);
+		when(message.getStringProperty("_type")).thenReturn(DeleteOrderRq.class.getName());
+		when(message.getText()).thenReturn("{\"requestId\":3,\"securityIsin\":\"ABC\",\"side\":\"SELL\",\"orderId\":10}");
+
+		requestIngress.receiveRq((BaseRq) converter.fromMessage(message));
+
+		verify(orderHandler).handleRq(isA(DeleteOrderRq.class));
+	}
+}
@@ -0,0 +1,72 @@
+package ir.ramtung.tinyme.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ir.ramtung.tinyme.domain.entity.*;
+import java.io.StringReader;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DataLoaderTest {
+
+	private BrokerRepository brokerRepository;
+	private ShareholderRepository shareholderRepository;
+	private SecurityRepository securityRepository;
+	private DataLoader dataLoader;
+
+	@BeforeEach
+	void setup() throws Exception {
+		brokerRepository = new BrokerRepository();
+		shareholderRepository = new ShareholderRepository();
+		securityRepository = new SecurityRepository();
+		dataLoader =
+			new DataLoader(
+				brokerRepository,
+				shareholderRepository,
+				securityRepository,
+				new RequestJournal("", 1024, JournalSyncPolicy.NONE, 1),
+				new SnapshotStore("", brokerRepository, shareholderRepository, securityRepository)
+			);
+
+		dataLoader.loadBrokers(new StringReader("brokerId,name,credit\n1,broker1,100000000\n2,broker2,5000\n"));
+		dataLoader.loadShareholders(new StringReader("shareholderId,name\n1,shareholder1\n"));
+		dataLoader.loadSecurities(new StringReader("isin,tickSize,lotSize\nSEC1,1,1\nSEC2,5,10\n"));
+		dataLoader.loadPositions(new StringReader("shareholderId,isin,positions\n1,SEC1,1000\n1,SEC2,800\n"));
+	}
+
+	@Test
+	void loads_reference_data() {
+		assertThat(brokerRepository.findBrokerById(2).getCredit()).isEqualTo(5000);
+		assertThat(securityRepository.findSecurityByIsin("SEC2").getLotSize()).isEqualTo(10);
+		Shareholder shareholder = shareholderRepository.findShareholderById(1);
+		assertThat(shareholder.getPositionBySecurity(securityRepository.findSecurityByIsin("SEC2"))).isEqualTo(800);
+	}
+
+	@Test
+	void builds_the_books_of_all_securities_in_file_priority_order() throws Exception {
+		String orderBook =
+			"orderId,isin,side,quantity,minimumExecutionQuantity,price,brokerId,shareholderId,entryTime,peakSize,displayedQuantity\n" +
+			"1,SEC1,BUY,304,0,15700,1,1,2024-02-23T10:59:54.970,0,0\n" +
+			"2,SEC2,SELL,100,0,200,2,1,2024-02-23T10:59:55.970,0,0\n" +
+			"3,SEC1,BUY,43,10,15500,1,1,2024-02-23T10:59:56.970,0,0\n" +
+			"4,SEC1,BUY,445,0,15700,2,1,2024-02-23T10:59:57.970,0,0\n" +
+			"5,SEC1,SELL,500,0,15800,1,1,2024-02-23T10:59:58.970,100,40\n" +
+			"6,SEC2,SELL,50,0,195,1,1,2024-02-23T10:59:59.970,0,0\n";
+		try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+			dataLoader.loadOrderBook(new StringReader(orderBook), executor);
+		}
+
+		OrderBook firstBook = securityRepository.findSecurityByIsin("SEC1").getOrderBook();
+		assertThat(firstBook.getBuyQueue()).extracting("orderId").containsExactly(1L, 4L, 3L);
+		assertThat(firstBook.findByOrderId(Side.BUY, 3).getMinimumExecutionQuantity()).isEqualTo(10);
+		IcebergOrder icebergOrder = (IcebergOrder) firstBook.findByOrderId(Side.SELL, 5);
+		assertThat(icebergOrder.getTotalQuantity()).isEqualTo(500);
+		assertThat(icebergOrder.getDisplayedQuantity()).isEqualTo(40);
+
+		OrderBook secondBook = securityRepository.findSecurityByIsin("SEC2").getOrderBook();
+		assertThat(secondBook.getSellQueue()).extracting("orderId").containsExactly(6L, 2L);
+		assertThat(secondBook.getBuyQueue()).isEmpty();
+	}
+}
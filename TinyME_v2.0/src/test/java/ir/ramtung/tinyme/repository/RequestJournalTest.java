@@ -0,0 +1,119 @@
+package ir.ramtung.tinyme.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ir.ramtung.tinyme.domain.entity.Side;
+import ir.ramtung.tinyme.messaging.request.BaseRq;
+import ir.ramtung.tinyme.messaging.request.ChangeMatchingStateRq;
+import ir.ramtung.tinyme.messaging.request.DeleteOrderRq;
+import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
+import ir.ramtung.tinyme.messaging.request.MatchingState;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RequestJournalTest {
+
+	private static final int SEGMENT_SIZE = 1024;
+	private static final LocalDateTime TIME = LocalDateTime.of(2024, 3, 17, 9, 30);
+
+	@TempDir
+	Path directory;
+
+	private RequestJournal open() throws IOException {
+		return new RequestJournal(directory.toString(), SEGMENT_SIZE, JournalSyncPolicy.EVERY_REQUEST, 2);
+	}
+
+	private static EnterOrderRq newOrderRq(long requestId) {
+		return EnterOrderRq.createNewOrderRq(requestId, "ABC", requestId, TIME, Side.BUY, 300, 15450, 1, 1, 0, 0);
+	}
+
+	private static List<BaseRq> replay(RequestJournal journal) throws IOException {
+		List<BaseRq> requests = new ArrayList<>();
+		journal.replay(requests::add);
+		return requests;
+	}
+
+	@Test
+	void is_disabled_without_a_directory() throws Exception {
+		assertThat(new RequestJournal("", SEGMENT_SIZE, JournalSyncPolicy.GROUP, 2).isEnabled()).isFalse();
+	}
+
+	@Test
+	void replays_requests_in_append_order_across_segments_after_reopening() throws Exception {
+		List<BaseRq> appended = new ArrayList<>();
+		RequestJournal journal = open();
+		for (int i = 1; i <= 100; i++) {
+			appended.add(newOrderRq(i));
+		}
+		appended.add(new DeleteOrderRq(101, "ABC", Side.BUY, 1, TIME));
+		appended.add(new ChangeMatchingStateRq("ABC", MatchingState.AUCTION));
+		appended.forEach(journal::append);
+		journal.close();
+
+		try (var segments = Files.list(directory)) {
+			assertThat(segments.count()).isGreaterThan(1);
+		}
+		assertThat(replay(open())).usingRecursiveFieldByFieldElementComparator().isEqualTo(appended);
+	}
+
+	@Test
+	void ignores_a_torn_record_and_appends_after_the_last_whole_one() throws Exception {
+		RequestJournal journal = open();
+		journal.append(newOrderRq(1));
+		journal.append(newOrderRq(2));
+		journal.close();
+
+		Path segment = directory.resolve("requests-00000.wal");
+		long secondRecordStart;
+		try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+			secondRecordStart = 8 + Integer.reverseBytes(file.readInt());
+			file.seek(secondRecordStart + 12);
+			file.write(new byte[] { 1, 2, 3 });
+		}
+
+		RequestJournal reopened = open();
+		assertThat(replay(reopened)).extracting("requestId").containsExactly(1L);
+		reopened.append(newOrderRq(3));
+		reopened.close();
+		assertThat(replay(open())).extracting("requestId").containsExactly(1L, 3L);
+	}
+
+	@Test
+	void replays_from_a_new_segment_once_the_earlier_ones_are_dropped() throws Exception {
+		RequestJournal journal = open();
+		journal.append(newOrderRq(1));
+		int segmentIndex = journal.startNewSegment();
+		journal.append(newOrderRq(2));
+		journal.deleteSegmentsBefore(segmentIndex);
+		journal.close();
+
+		RequestJournal reopened = open();
+		assertThat(replay(reopened)).extracting("requestId").containsExactly(2L);
+		List<BaseRq> replayed = new ArrayList<>();
+		reopened.replay(segmentIndex + 1, replayed::add);
+		assertThat(replayed).isEmpty();
+	}
+
+	@Test
+	void starts_over_empty_after_a_reset() throws Exception {
+		RequestJournal journal = open();
+		for (int i = 1; i <= 30; i++) {
+			journal.append(newOrderRq(i));
+		}
+		journal.reset();
+		journal.append(newOrderRq(31));
+		journal.close();
+
+		assertThat(replay(open())).extracting("requestId").containsExactly(31L);
+		try (var segments = Files.list(directory)) {
+			assertThat(segments.count()).isEqualTo(1);
+		}
+	}
+}
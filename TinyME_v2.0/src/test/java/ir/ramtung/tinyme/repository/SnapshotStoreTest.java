@@ -0,0 +1,186 @@
+package ir.ramtung.tinyme.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import ir.ramtung.tinyme.domain.entity.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SnapshotStoreTest {
+
+	private static final LocalDateTime TIME = LocalDateTime.of(2024, 3, 17, 9, 30, 15, 123_456_789);
+
+	@TempDir
+	Path directory;
+
+	private BrokerRepository brokerRepository;
+	private ShareholderRepository shareholderRepository;
+	private SecurityRepository securityRepository;
+	private SnapshotStore snapshotStore;
+
+	@BeforeEach
+	void setup() {
+		brokerRepository = new BrokerRepository();
+		shareholderRepository = new ShareholderRepository();
+		securityRepository = new SecurityRepository();
+		snapshotStore = new SnapshotStore(
+			directory.toString(),
+			brokerRepository,
+			shareholderRepository,
+			securityRepository
+		);
+
+		Broker broker = Broker.builder().brokerId(1).name("broker").credit(10_000_000).build();
+		brokerRepository.addBroker(broker);
+		Shareholder shareholder = Shareholder.builder().shareholderId(2).name("shareholder").build();
+		shareholderRepository.addShareholder(shareholder);
+
+		Security security = Security.builder().isin("ABC").tickSize(5).lotSize(10).build();
+		security.restore(SecurityState.CONTINUOUS, 15450);
+		securityRepository.addSecurity(security);
+		Security auctionSecurity = Security.builder().isin("XYZ").build();
+		auctionSecurity.restore(SecurityState.AUCTION, 0);
+		securityRepository.addSecurity(auctionSecurity);
+		shareholder.incPosition(security, 5000);
+		shareholder.incPosition(auctionSecurity, 100);
+
+		OrderBook orderBook = security.getOrderBook();
+		List.of(
+			new Order(1, security, Side.BUY, 300, 0, 15400, broker, shareholder, TIME),
+			new Order(2, security, Side.BUY, 200, 50, 15400, broker, shareholder, TIME),
+			new Order(3, security, Side.BUY, 100, 0, 15450, broker, shareholder, TIME),
+			new IcebergOrder(4, security, Side.SELL, 1000, 0, 15500, broker, shareholder, TIME, 100, 40, OrderStatus.NEW),
+			new Order(5, security, Side.SELL, 400, 0, 15500, broker, shareholder, TIME),
+			new StopLimitOrder(6, security, Side.BUY, 100, 15600, broker, shareholder, TIME, 15550, 16, OrderStatus.NEW),
+			new StopLimitOrder(7, security, Side.SELL, 100, 15300, broker, shareholder, TIME, 15350, 17, OrderStatus.NEW)
+		).forEach(orderBook::enqueue);
+		broker.reserveCredit(15400 * 500 + 15450 * 100);
+		auctionSecurity.getOrderBook().enqueue(new Order(8, auctionSecurity, Side.SELL, 50, 0, 100, broker, shareholder, TIME));
+	}
+
+	private SnapshotStore freshStore() {
+		brokerRepository = new BrokerRepository();
+		shareholderRepository = new ShareholderRepository();
+		securityRepository = new SecurityRepository();
+		return new SnapshotStore(directory.toString(), brokerRepository, shareholderRepository, securityRepository);
+	}
+
+	@Test
+	void loads_securities_books_credits_and_positions_as_they_were_captured() throws Exception {
+		snapshotStore.save(snapshotStore.captureAll(7));
+
+		SnapshotStore loadingStore = freshStore();
+		assertThat(loadingStore.loadNewest()).isTrue();
+		assertThat(loadingStore.getLoadedJournalSegmentIndex()).isEqualTo(7);
+
+		Broker broker = brokerRepository.findBrokerById(1);
+		assertThat(broker.getName()).isEqualTo("broker");
+		assertThat(broker.getReservedCredit()).isEqualTo(15400 * 500 + 15450 * 100);
+		assertThat(broker.getCredit()).isEqualTo(10_000_000 - broker.getReservedCredit());
+
+		Security security = securityRepository.findSecurityByIsin("ABC");
+		Security auctionSecurity = securityRepository.findSecurityByIsin("XYZ");
+		assertThat(security.getTickSize()).isEqualTo(5);
+		assertThat(security.getLotSize()).isEqualTo(10);
+		assertThat(security.getLastTradePrice()).isEqualTo(15450);
+		assertThat(auctionSecurity.getState()).isEqualTo(SecurityState.AUCTION);
+
+		Shareholder shareholder = shareholderRepository.findShareholderById(2);
+		assertThat(shareholder.getPositionBySecurity(security)).isEqualTo(5000);
+		assertThat(shareholder.getPositionBySecurity(auctionSecurity)).isEqualTo(100);
+
+		OrderBook orderBook = security.getOrderBook();
+		assertThat(orderBook.getBuyQueue())
+			.extracting("orderId", "quantity", "minimumExecutionQuantity", "price", "entryTime", "status")
+			.containsExactly(
+				tuple(3L, 100, 0, 15450, TIME, OrderStatus.QUEUED),
+				tuple(1L, 300, 0, 15400, TIME, OrderStatus.QUEUED),
+				tuple(2L, 200, 50, 15400, TIME, OrderStatus.QUEUED)
+			);
+		assertThat(orderBook.getSellQueue()).extracting("orderId").containsExactly(4L, 5L);
+		IcebergOrder icebergOrder = (IcebergOrder) orderBook.findByOrderId(Side.SELL, 4);
+		assertThat(icebergOrder.getTotalQuantity()).isEqualTo(1000);
+		assertThat(icebergOrder.getPeakSize()).isEqualTo(100);
+		assertThat(icebergOrder.getDisplayedQuantity()).isEqualTo(40);
+		assertThat(orderBook.getStopLimitOrderBuyQueue())
+			.extracting("orderId", "stopPrice", "requestId")
+			.containsExactly(tuple(6L, 15550, 16L));
+		assertThat(orderBook.getStopLimitOrderSellQueue())
+			.extracting("orderId", "stopPrice", "requestId")
+			.containsExactly(tuple(7L, 15350, 17L));
+		assertThat(auctionSecurity.getOrderBook().getSellQueue()).extracting("orderId").containsExactly(8L);
+	}
+
+	@Test
+	void loads_the_newest_snapshot_and_keeps_only_the_last_two() throws Exception {
+		snapshotStore.save(snapshotStore.captureAll(1));
+		snapshotStore.save(snapshotStore.captureAll(2));
+		snapshotStore.save(snapshotStore.captureAll(3));
+
+		try (var snapshots = Files.list(directory)) {
+			assertThat(snapshots.count()).isEqualTo(2);
+		}
+		SnapshotStore loadingStore = freshStore();
+		assertThat(loadingStore.loadNewest()).isTrue();
+		assertThat(loadingStore.getLoadedJournalSegmentIndex()).isEqualTo(3);
+	}
+
+	@Test
+	void checkpoints_only_what_changed_and_loads_it_over_the_snapshot() throws Exception {
+		snapshotStore.save(snapshotStore.captureAll(1));
+		assertThat(snapshotStore.captureChanges(() -> 2)).isNull();
+
+		Broker broker = brokerRepository.findBrokerById(1);
+		Security security = securityRepository.findSecurityByIsin("ABC");
+		security.deleteOrder(Side.BUY, 1);
+		SnapshotStore.Capture checkpoint = snapshotStore.captureChanges(() -> 2);
+		snapshotStore.save(checkpoint);
+		broker.increaseCreditBy(100);
+		snapshotStore.save(snapshotStore.captureChanges(() -> 3));
+		long credit = broker.getCredit();
+		long reservedCredit = broker.getReservedCredit();
+
+		assertThat(checkpoint.checkpoint()).isTrue();
+		assertThat(checkpoint.data().length).isLessThan(snapshotStore.captureAll(0).data().length);
+		SnapshotStore loadingStore = freshStore();
+		assertThat(loadingStore.loadNewest()).isTrue();
+		assertThat(loadingStore.getLoadedJournalSegmentIndex()).isEqualTo(3);
+		assertThat(brokerRepository.findBrokerById(1).getCredit()).isEqualTo(credit);
+		assertThat(brokerRepository.findBrokerById(1).getReservedCredit()).isEqualTo(reservedCredit);
+		Security loadedSecurity = securityRepository.findSecurityByIsin("ABC");
+		assertThat(loadedSecurity.getOrderBook().getBuyQueue()).extracting("orderId").containsExactly(3L, 2L);
+		assertThat(securityRepository.findSecurityByIsin("XYZ").getOrderBook().getSellQueue())
+			.extracting("orderId")
+			.containsExactly(8L);
+		assertThat(shareholderRepository.findShareholderById(2).getPositionBySecurity(loadedSecurity)).isEqualTo(5000);
+	}
+
+	@Test
+	void drops_the_checkpoints_a_new_snapshot_covers() throws Exception {
+		snapshotStore.save(snapshotStore.captureAll(1));
+		brokerRepository.findBrokerById(1).increaseCreditBy(100);
+		snapshotStore.save(snapshotStore.captureChanges(() -> 2));
+		brokerRepository.findBrokerById(1).increaseCreditBy(100);
+		snapshotStore.save(snapshotStore.captureAll(3));
+
+		try (var files = Files.list(directory)) {
+			assertThat(files.map(path -> path.getFileName().toString())).noneMatch(name -> name.startsWith("checkpoint-"));
+		}
+		SnapshotStore loadingStore = freshStore();
+		assertThat(loadingStore.loadNewest()).isTrue();
+		assertThat(brokerRepository.findBrokerById(1).getCredit()).isEqualTo(10_000_000 - 15400 * 500 - 15450 * 100 + 200);
+	}
+
+	@Test
+	void loads_nothing_without_a_snapshot() throws Exception {
+		assertThat(snapshotStore.loadNewest()).isFalse();
+		assertThat(new SnapshotStore("", brokerRepository, shareholderRepository, securityRepository).loadNewest())
+			.isFalse();
+	}
+}
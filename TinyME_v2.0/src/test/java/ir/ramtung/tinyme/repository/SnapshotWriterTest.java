@@ -0,0 +1,58 @@
+package ir.ramtung.tinyme.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import ir.ramtung.tinyme.domain.entity.Broker;
+import ir.ramtung.tinyme.domain.service.MatchingShards;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SnapshotWriterTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void takes_a_whole_snapshot_after_a_snapshot_fails_to_save() throws Exception {
+		BrokerRepository brokerRepository = new BrokerRepository();
+		Broker broker = Broker.builder().brokerId(1).credit(1000).build();
+		brokerRepository.addBroker(broker);
+		List<SnapshotStore.Capture> saved = new ArrayList<>();
+		SnapshotStore snapshotStore = new SnapshotStore(
+			directory.toString(),
+			brokerRepository,
+			new ShareholderRepository(),
+			new SecurityRepository()
+		) {
+			private boolean failing = true;
+
+			@Override
+			public synchronized void save(Capture capture) throws IOException {
+				if (failing) {
+					failing = false;
+					throw new IOException("disk full");
+				}
+				saved.add(capture);
+				super.save(capture);
+			}
+		};
+		SnapshotWriter snapshotWriter = new SnapshotWriter(
+			snapshotStore,
+			new MatchingShards(0, null),
+			new RequestJournal("", 1024, JournalSyncPolicy.NONE, 2),
+			0,
+			0
+		);
+
+		broker.increaseCreditBy(500);
+		assertThatThrownBy(snapshotWriter::writeSnapshot).isInstanceOf(IOException.class);
+		snapshotWriter.writeCheckpoint();
+
+		assertThat(saved).extracting(SnapshotStore.Capture::checkpoint).containsExactly(false);
+	}
+}